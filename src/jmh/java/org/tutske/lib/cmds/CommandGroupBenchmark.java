@@ -0,0 +1,63 @@
+package org.tutske.lib.cmds;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tutske.lib.options.Option.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 5, time = 1)
+@Measurement (iterations = 5, time = 1)
+@Fork (1)
+public class CommandGroupBenchmark {
+
+	@Param ({ "1", "4", "16" })
+	public int depth;
+
+	private CommandGroup group;
+	private String [] args;
+
+	@Setup
+	public void setup () {
+		group = new CommandGroup ();
+		List<String> args = new ArrayList<> ();
+
+		for ( int i = 0; i < depth; i++ ) {
+			Command current = Command.create ("level-" + i);
+			Command next = i + 1 < depth ? Command.create ("level-" + (i + 1)) : null;
+			IntegerOption option = new IntegerOption ("option " + i, i);
+
+			group.register (current, config -> {
+				config.options (option);
+				if ( next != null ) { config.subCommand (next); }
+			});
+
+			args.add ("level-" + i);
+			args.add ("--option-" + i + "=" + (i * 2));
+		}
+
+		group.configure (Command.GLOBAL).fn ((command, store, tail) -> command);
+		this.args = args.toArray (new String [] {});
+	}
+
+	@Benchmark
+	public Object run () {
+		return group.run (args);
+	}
+
+}
@@ -0,0 +1,102 @@
+package org.tutske.lib.options;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tutske.lib.options.Option.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.NANOSECONDS)
+@Warmup (iterations = 5, time = 1)
+@Measurement (iterations = 5, time = 1)
+@Fork (1)
+public class DurationOptionBenchmark {
+
+	@Param ({ "30s", "1week 3days 23:17:12", "2Hours 15minutes 30seconds 250ms" })
+	public String value;
+
+	private final Option<Duration> option = new DurationOption ("timeout");
+
+	@Benchmark
+	public Duration scanner () {
+		return option.parseValue (value);
+	}
+
+	@Benchmark
+	public Duration regex () {
+		return Legacy.parse (value);
+	}
+
+	private static final class Legacy {
+		private static final Pattern pattern = Pattern.compile (
+			"(\\d+)(ns|ms|s|seconds?|m|minutes?|h|hours?|d|days?|w|weeks?|y|years?)"
+		);
+
+		private static Duration parse (String representation) {
+			Duration duration = Duration.ZERO;
+			for ( String part : representation.split (" ") ) {
+				duration = duration.plus (parseSingle (part.toLowerCase ()));
+			}
+			return duration;
+		}
+
+		private static Duration parseSingle (String representation) {
+			if ( representation.contains (":") ) {
+				String [] parts = representation.split (":");
+
+				if ( parts.length == 2 ) {
+					return Duration
+						.ofHours (Integer.parseInt (parts[0]))
+						.plusMinutes (Integer.parseInt (parts[1]));
+				} else if ( parts.length == 3 ) {
+					return Duration
+						.ofHours (Integer.parseInt (parts[0]))
+						.plusMinutes (Integer.parseInt (parts[1]))
+						.plusSeconds (Integer.parseInt (parts[2]));
+				} else {
+					throw new RuntimeException (
+						"Wrong number of parts: '" + representation + "'"
+					);
+				}
+			}
+
+			Matcher matcher = pattern.matcher (representation);
+			if ( matcher.matches () ) {
+				long amount = Long.parseLong (matcher.group (1));
+				long nanos = toNanos (amount, matcher.group (2));
+				return Duration.ofNanos (nanos);
+			}
+
+			throw new RuntimeException ("Could not covert part: '" + representation + "'");
+		}
+
+		private static long toNanos (long amount, String s) {
+			switch ( s ) {
+				case "ns": return TimeUnit.NANOSECONDS.toNanos (amount);
+				case "ms": return TimeUnit.MILLISECONDS.toNanos (amount);
+				case "s": case "second": case "seconds": return TimeUnit.SECONDS.toNanos (amount);
+				case "m": case "minute": case "minutes": return TimeUnit.MINUTES.toNanos (amount);
+				case "h": case "hour": case "hours": return TimeUnit.HOURS.toNanos (amount);
+				case "d": case "day": case "days": return TimeUnit.DAYS.toNanos (amount);
+				case "w": case "week": case "weeks": return TimeUnit.DAYS.toNanos (amount * 7);
+				case "y": case "year": case "years": return TimeUnit.DAYS.toNanos (amount * 365);
+				default: throw new RuntimeException ("Invalid duration unit: " + s);
+			}
+		}
+	}
+
+}
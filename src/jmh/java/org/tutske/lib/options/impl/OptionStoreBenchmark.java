@@ -0,0 +1,102 @@
+package org.tutske.lib.options.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.tutske.lib.options.Option;
+import org.tutske.lib.options.Option.*;
+import org.tutske.lib.options.OptionConsumer;
+import org.tutske.lib.options.OptionSource;
+import org.tutske.lib.options.OptionStore;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.NANOSECONDS)
+@Warmup (iterations = 5, time = 1)
+@Measurement (iterations = 5, time = 1)
+@Fork (1)
+public class OptionStoreBenchmark {
+
+	@Param ({ "0", "1", "16" })
+	public int listeners;
+
+	private final StringOption name = new StringOption ("name");
+	private final IntegerOption count = new IntegerOption ("count");
+
+	private final List<Integer> first = Collections.singletonList (1024);
+	private final List<Integer> second = Collections.singletonList (2048);
+
+	private OptionStore store;
+	private OptionConsumer consumer;
+	private boolean flip;
+
+	@Setup
+	public void setup () throws Exception {
+		store = new ReplacingOptionStore (new DirectExecutorService (), name, count);
+		store.bind (new OptionSource () {
+			@Override public void subscribe (List<Option> options, OptionConsumer consumer) {
+				OptionStoreBenchmark.this.consumer = consumer;
+			}
+			@Override public void unsubscribe (List<Option> options, OptionConsumer consumer) {
+			}
+		});
+
+		consumer.accept (name, Collections.singletonList ("John"));
+		consumer.accept (count, first);
+
+		for ( int i = 0; i < listeners; i++ ) {
+			store.onValue (count, value -> {});
+		}
+	}
+
+	@TearDown
+	public void teardown () {
+		store.close ();
+	}
+
+	@Benchmark
+	public void get (Blackhole blackhole) {
+		blackhole.consume (store.get (name));
+		blackhole.consume (store.get (count));
+	}
+
+	@Benchmark
+	public void getAll (Blackhole blackhole) {
+		blackhole.consume (store.getAll (name));
+		blackhole.consume (store.getAll (count));
+	}
+
+	@Benchmark
+	public void assign () throws Exception {
+		flip = ! flip;
+		consumer.accept (count, flip ? second : first);
+	}
+
+	private static class DirectExecutorService extends AbstractExecutorService {
+		@Override public void shutdown () { }
+		@Override public List<Runnable> shutdownNow () { return Collections.emptyList (); }
+		@Override public boolean isShutdown () { return false; }
+		@Override public boolean isTerminated () { return false; }
+		@Override public boolean awaitTermination (long timeout, TimeUnit unit) { return false; }
+		@Override public void execute (Runnable command) {
+			command.run ();
+		}
+	}
+
+}
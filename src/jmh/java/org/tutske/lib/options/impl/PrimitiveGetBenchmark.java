@@ -0,0 +1,63 @@
+package org.tutske.lib.options.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tutske.lib.options.Option;
+import org.tutske.lib.options.Option.*;
+import org.tutske.lib.options.OptionStore;
+import org.tutske.lib.options.OptionStoreFactory;
+import org.tutske.lib.options.sources.DefaultsOptionSource;
+
+import java.util.concurrent.TimeUnit;
+
+
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.NANOSECONDS)
+@Warmup (iterations = 5, time = 1)
+@Measurement (iterations = 5, time = 1)
+@Fork (1)
+public class PrimitiveGetBenchmark {
+
+	private final IntegerOption threads = new IntegerOption ("threads", 4096);
+	private final LongOption limit = new LongOption ("limit", 1L << 40);
+	private final DoubleOption ratio = new DoubleOption ("ratio", 0.75);
+	private final BooleanOption enabled = new BooleanOption ("enabled", true);
+
+	private OptionStore store;
+
+	@Setup
+	public void setup () {
+		store = OptionStoreFactory.createNew (
+			new Option [] { threads, limit, ratio, enabled },
+			new DefaultsOptionSource ()
+		);
+	}
+
+	@Benchmark
+	public double boxed () {
+		int threads = store.get (this.threads);
+		long limit = store.get (this.limit);
+		double ratio = store.get (this.ratio);
+		boolean enabled = store.get (this.enabled);
+		return enabled ? threads * ratio + limit : limit;
+	}
+
+	@Benchmark
+	public double primitive () {
+		int threads = store.getInt (this.threads);
+		long limit = store.getLong (this.limit);
+		double ratio = store.getDouble (this.ratio);
+		boolean enabled = store.getBoolean (this.enabled);
+		return enabled ? threads * ratio + limit : limit;
+	}
+
+}
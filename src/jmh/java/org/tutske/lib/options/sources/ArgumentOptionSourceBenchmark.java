@@ -0,0 +1,75 @@
+package org.tutske.lib.options.sources;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.tutske.lib.options.Option;
+import org.tutske.lib.options.Option.*;
+import org.tutske.lib.options.OptionConsumer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 5, time = 1)
+@Measurement (iterations = 5, time = 1)
+@Fork (1)
+public class ArgumentOptionSourceBenchmark {
+
+	@Param ({ "10", "1000", "100000" })
+	public int size;
+
+	private final List<Option> options = Arrays.asList (
+		new StringOption ("input"),
+		new IntegerOption ("threads"),
+		new BooleanOption ("verbose"),
+		new StringOption ("output file")
+	);
+
+	private ArgumentOptionSource source;
+	private String [] args;
+
+	@Setup
+	public void setup (Blackhole blackhole) {
+		source = new ArgumentOptionSource ();
+		source.subscribe (options, new OptionConsumer () {
+			@Override public <T> void accept (Option<T> option, List<T> values) {
+				blackhole.consume (values);
+			}
+		});
+
+		args = new String [size];
+		for ( int i = 0; i < size; i++ ) {
+			switch ( i % 4 ) {
+				case 0: args[i] = "--input=/data/part-" + i; break;
+				case 1: args[i] = "--threads=" + i; break;
+				case 2: args[i] = i % 8 == 2 ? "--verbose" : "--no-verbose"; break;
+				default: args[i] = "--output-file=/out/part-" + i; break;
+			}
+		}
+	}
+
+	@Benchmark
+	public void consume () {
+		source.consume (args);
+	}
+
+	@Benchmark
+	public String [] consumeTailed () {
+		return source.consumeTailed (args);
+	}
+
+}
@@ -0,0 +1,92 @@
+package org.tutske.lib.options.sources;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.tutske.lib.options.Option;
+import org.tutske.lib.options.Option.*;
+import org.tutske.lib.options.OptionConsumer;
+import org.tutske.lib.utils.Exceptions;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 5, time = 1)
+@Measurement (iterations = 5, time = 1)
+@Fork (1)
+public class PropertyFileOptionSourceBenchmark {
+
+	@Param ({ "10", "1000", "10000", "100000" })
+	public int size;
+
+	@Param ({ "16" })
+	public int options;
+
+	private PropertyFileOptionSource source;
+	private byte [] content;
+	private Path file;
+
+	@Setup
+	public void setup (Blackhole blackhole) {
+		List<Option> registered = new ArrayList<> ();
+		for ( int i = 0; i < options; i++ ) {
+			registered.add (new StringOption ("feature " + i));
+		}
+
+		source = new PropertyFileOptionSource ();
+		source.subscribe (registered, new OptionConsumer () {
+			@Override public <T> void accept (Option<T> option, List<T> values) {
+				blackhole.consume (values);
+			}
+		});
+
+		StringBuilder builder = new StringBuilder ();
+		for ( int i = 0; i < size; i++ ) {
+			builder.append ("# generated entry ").append (i).append ('\n');
+			builder.append ("FEATURE_").append (i).append (" = value-").append (i).append ('\n');
+		}
+		content = builder.toString ().getBytes (StandardCharsets.ISO_8859_1);
+
+		try {
+			file = Files.createTempFile ("benchmark", ".properties");
+			Files.write (file, content);
+		} catch ( Exception e ) {
+			throw Exceptions.wrap (e);
+		}
+	}
+
+	@TearDown
+	public void tearDown () throws Exception {
+		Files.deleteIfExists (file);
+	}
+
+	@Benchmark
+	public void consume () {
+		source.consume (new ByteArrayInputStream (content));
+	}
+
+	@Benchmark
+	public void consumePath () {
+		source.consume (file);
+	}
+
+}
@@ -2,6 +2,8 @@ package org.tutske.lib.cmds;
 
 import org.tutske.lib.options.DynamicOption;
 import org.tutske.lib.options.Option;
+import org.tutske.lib.options.OptionHandle;
+import org.tutske.lib.options.OptionSnapshot;
 import org.tutske.lib.options.OptionSource;
 import org.tutske.lib.options.OptionStore;
 import org.tutske.lib.options.StoreChangeConsumer;
@@ -69,6 +71,26 @@ public class CommandStore implements OptionStore {
 		return optionStore (command).get (option);
 	}
 
+	@Override
+	public int getInt (Option<Integer> option) {
+		return optionStore (main).getInt (option);
+	}
+
+	@Override
+	public long getLong (Option<Long> option) {
+		return optionStore (main).getLong (option);
+	}
+
+	@Override
+	public double getDouble (Option<Double> option) {
+		return optionStore (main).getDouble (option);
+	}
+
+	@Override
+	public boolean getBoolean (Option<Boolean> option) {
+		return optionStore (main).getBoolean (option);
+	}
+
 	public <T> T find (Option<T> option) {
 		return findStore (option).get (option);
 	}
@@ -115,6 +137,20 @@ public class CommandStore implements OptionStore {
 		findStore (option).onChanges (option, consumer);
 	}
 
+	@Override
+	public OptionSnapshot snapshot () {
+		return optionStore (main).snapshot ();
+	}
+
+	public OptionSnapshot snapshot (Command command) {
+		return optionStore (command).snapshot ();
+	}
+
+	@Override
+	public <T> OptionHandle<T> handle (Option<T> option) {
+		return findStore (option).handle (option);
+	}
+
 	@Override
 	public <T> DynamicOption<T> dynamic (Option<T> option) {
 		return findStore (option).dynamic (option);
@@ -125,6 +161,13 @@ public class CommandStore implements OptionStore {
 		return findStore (option).dynamicValue (option);
 	}
 
+	@Override
+	public void close () {
+		for ( OptionStore store : stores.values () ) {
+			store.close ();
+		}
+	}
+
 	private OptionStore findStore (Option option) {
 		for ( OptionStore store : stores.values () ) {
 			if ( store.knows (option) ) {
@@ -0,0 +1,87 @@
+package org.tutske.lib.options;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+
+public class ConversionCache {
+
+	private static final class Key {
+		private final Object type;
+		private final String raw;
+		private final int hash;
+
+		private Key (Object type, String raw) {
+			this.type = type;
+			this.raw = raw;
+			this.hash = 31 * type.hashCode () + Objects.hashCode (raw);
+		}
+
+		@Override public int hashCode () { return hash; }
+		@Override public boolean equals (Object o) {
+			if ( ! (o instanceof Key) ) { return false; }
+			Key other = (Key) o;
+			return type.equals (other.type) && Objects.equals (raw, other.raw);
+		}
+	}
+
+	private final int capacity;
+	private final Map<Key, Object> values;
+	private final AtomicLong hits = new AtomicLong ();
+	private final AtomicLong misses = new AtomicLong ();
+
+	public ConversionCache (int capacity) {
+		if ( capacity <= 0 ) { throw new IllegalArgumentException ("Cache capacity must be positive, got " + capacity); }
+		this.capacity = capacity;
+		this.values = new LinkedHashMap<Key, Object> (16, 0.75f, true) {
+			@Override protected boolean removeEldestEntry (Map.Entry<Key, Object> eldest) {
+				return size () > ConversionCache.this.capacity;
+			}
+		};
+	}
+
+	public <T> T convert (Object type, String raw, Function<String, T> converter) {
+		Key key = new Key (type, raw);
+
+		synchronized ( values ) {
+			Object value = values.get (key);
+			if ( value != null ) {
+				hits.incrementAndGet ();
+				return (T) value;
+			}
+		}
+
+		misses.incrementAndGet ();
+		T converted = converter.apply (raw);
+		if ( converted == null ) { return null; }
+
+		synchronized ( values ) {
+			Object existing = values.putIfAbsent (key, converted);
+			return existing == null ? converted : (T) existing;
+		}
+	}
+
+	public int capacity () {
+		return capacity;
+	}
+
+	public int size () {
+		synchronized ( values ) { return values.size (); }
+	}
+
+	public long hits () {
+		return hits.get ();
+	}
+
+	public long misses () {
+		return misses.get ();
+	}
+
+	public void clear () {
+		synchronized ( values ) { values.clear (); }
+	}
+
+}
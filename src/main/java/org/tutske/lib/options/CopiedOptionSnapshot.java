@@ -0,0 +1,79 @@
+package org.tutske.lib.options;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+final class CopiedOptionSnapshot implements OptionSnapshot {
+
+	private final Set<Option<?>> known;
+	private final Map<Option<?>, List<?>> values = new HashMap<> ();
+
+	CopiedOptionSnapshot (OptionStore store) {
+		this.known = new HashSet<> (store.options ());
+		for ( Option<?> option : known ) {
+			if ( store.has (option) ) {
+				values.put (option, Collections.unmodifiableList (new ArrayList<> (store.getAll (option))));
+			}
+		}
+	}
+
+	@Override
+	public long generation () {
+		return 0;
+	}
+
+	@Override
+	public boolean knows (Option<?> option) {
+		return known.contains (option);
+	}
+
+	@Override
+	public boolean has (Option<?> option) {
+		return values.containsKey (option);
+	}
+
+	@Override
+	public <T> T get (Option<T> option) {
+		List<T> values = getAll (option);
+		return values.isEmpty () ? null : values.get (0);
+	}
+
+	@Override
+	public <T> List<T> getAll (Option<T> option) {
+		if ( ! known.contains (option) ) { throw new UnknownOptionException (option); }
+		return (List<T>) values.getOrDefault (option, Collections.emptyList ());
+	}
+
+	@Override
+	public int getInt (Option<Integer> option) {
+		return required (option);
+	}
+
+	@Override
+	public long getLong (Option<Long> option) {
+		return required (option);
+	}
+
+	@Override
+	public double getDouble (Option<Double> option) {
+		return required (option);
+	}
+
+	@Override
+	public boolean getBoolean (Option<Boolean> option) {
+		return required (option);
+	}
+
+	private <T> T required (Option<T> option) {
+		T value = get (option);
+		if ( value == null ) { throw new MissingValueException (option); }
+		return value;
+	}
+
+}
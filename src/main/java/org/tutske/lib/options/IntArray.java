@@ -0,0 +1,75 @@
+package org.tutske.lib.options;
+
+import java.util.Arrays;
+
+
+public final class IntArray {
+
+	private static final IntArray EMPTY = new IntArray (new int [0]);
+
+	private final int [] values;
+	private final int [] table;
+	private final int mask;
+
+	private IntArray (int [] values) {
+		int capacity = 2;
+		while ( capacity < values.length * 2 ) { capacity <<= 1; }
+
+		this.values = values;
+		this.table = new int [capacity];
+		this.mask = capacity - 1;
+
+		for ( int i = 0; i < values.length; i++ ) {
+			int index = index (values[i]);
+			if ( table[index] == 0 ) { table[index] = i + 1; }
+		}
+	}
+
+	public static IntArray of (int ... values) {
+		return values.length == 0 ? EMPTY : new IntArray (values.clone ());
+	}
+
+	static IntArray wrap (int [] values) {
+		return values.length == 0 ? EMPTY : new IntArray (values);
+	}
+
+	public int length () {
+		return values.length;
+	}
+
+	public int get (int index) {
+		return values[index];
+	}
+
+	public boolean contains (int value) {
+		return table[index (value)] != 0;
+	}
+
+	public int [] toArray () {
+		return values.clone ();
+	}
+
+	@Override public boolean equals (Object o) {
+		return o instanceof IntArray && Arrays.equals (values, ((IntArray) o).values);
+	}
+
+	@Override public int hashCode () {
+		return Arrays.hashCode (values);
+	}
+
+	@Override public String toString () {
+		return Arrays.toString (values);
+	}
+
+	private int index (int value) {
+		int index = hash (value) & mask;
+		while ( table[index] != 0 && values[table[index] - 1] != value ) { index = (index + 1) & mask; }
+		return index;
+	}
+
+	private static int hash (int value) {
+		int hash = value * 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+}
@@ -0,0 +1,75 @@
+package org.tutske.lib.options;
+
+import java.util.Arrays;
+
+
+public final class LongArray {
+
+	private static final LongArray EMPTY = new LongArray (new long [0]);
+
+	private final long [] values;
+	private final int [] table;
+	private final int mask;
+
+	private LongArray (long [] values) {
+		int capacity = 2;
+		while ( capacity < values.length * 2 ) { capacity <<= 1; }
+
+		this.values = values;
+		this.table = new int [capacity];
+		this.mask = capacity - 1;
+
+		for ( int i = 0; i < values.length; i++ ) {
+			int index = index (values[i]);
+			if ( table[index] == 0 ) { table[index] = i + 1; }
+		}
+	}
+
+	public static LongArray of (long ... values) {
+		return values.length == 0 ? EMPTY : new LongArray (values.clone ());
+	}
+
+	static LongArray wrap (long [] values) {
+		return values.length == 0 ? EMPTY : new LongArray (values);
+	}
+
+	public int length () {
+		return values.length;
+	}
+
+	public long get (int index) {
+		return values[index];
+	}
+
+	public boolean contains (long value) {
+		return table[index (value)] != 0;
+	}
+
+	public long [] toArray () {
+		return values.clone ();
+	}
+
+	@Override public boolean equals (Object o) {
+		return o instanceof LongArray && Arrays.equals (values, ((LongArray) o).values);
+	}
+
+	@Override public int hashCode () {
+		return Arrays.hashCode (values);
+	}
+
+	@Override public String toString () {
+		return Arrays.toString (values);
+	}
+
+	private int index (long value) {
+		int index = hash (value) & mask;
+		while ( table[index] != 0 && values[table[index] - 1] != value ) { index = (index + 1) & mask; }
+		return index;
+	}
+
+	private static int hash (long value) {
+		long hash = value * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+}
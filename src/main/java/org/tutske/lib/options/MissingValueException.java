@@ -0,0 +1,34 @@
+package org.tutske.lib.options;
+
+
+public class MissingValueException extends OptionException {
+
+	private static final String FORMAT = "Option `%s` does not have a value.";
+
+	private Option option;
+
+	public MissingValueException () {
+	}
+
+	public MissingValueException (Option option) {
+		this (formatMessage (option));
+		this.option = option;
+	}
+
+	public MissingValueException (String message) {
+		super (message);
+	}
+
+	public MissingValueException (String message, Throwable cause) {
+		super (message, cause);
+	}
+
+	public MissingValueException (Throwable cause) {
+		super (cause);
+	}
+
+	private static String formatMessage (Option option) {
+		return String.format (FORMAT, option.getName ());
+	}
+
+}
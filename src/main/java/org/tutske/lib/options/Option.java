@@ -1,23 +1,28 @@
 package org.tutske.lib.options;
 
+import org.tutske.lib.options.impl.NameIndex;
 import org.tutske.lib.utils.PrimitivesParser;
 
 import java.net.URI;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 
 public abstract class Option<T> {
 
+	private static final AtomicInteger ordinals = new AtomicInteger ();
+
 	public static abstract class BaseOption<T> extends Option<T> {
 		protected final String name;
 		protected final T fallback;
 		protected final Function<String, T> converter;
+		private volatile ConversionCache cache;
 
 		protected BaseOption (String name, T fallback, Function<String, T> converter) {
 			this.name = name;
@@ -25,9 +30,22 @@ public abstract class Option<T> {
 			this.converter = converter;
 		}
 
+		public BaseOption<T> cached (ConversionCache cache) {
+			this.cache = cache;
+			return this;
+		}
+
+		protected Object conversionType () {
+			return converter;
+		}
+
 		@Override public String getName () { return this.name; }
-		@Override public T parseValue (String value) { return converter.apply (value); }
 		@Override public T getDefault () { return fallback; }
+		@Override public T parseValue (String value) {
+			ConversionCache cache = this.cache;
+			Object type = cache == null ? null : conversionType ();
+			return type == null ? converter.apply (value) : cache.convert (type, value, converter);
+		}
 	}
 
 	public static class EnumOption<T extends Enum<T>> extends BaseOption<T> {
@@ -40,17 +58,16 @@ public abstract class Option<T> {
 			this (name, values, null);
 		}
 		private static <T extends Enum<T>> Function<String, T> buildConverter (String name, Enum<T> [] values) {
-			return (value) -> {
-				value = value == null ? "" : value.toLowerCase ();
+			NameIndex<T> index = new NameIndex<> (Character::toLowerCase);
+			for ( Enum<T> value : values ) { index.putIfAbsent (value.name (), (T) value); }
 
-				for ( Enum<T> attempt : values ) {
-					if ( attempt.name ().toLowerCase ().equals (value) ) {
-						return (T) attempt;
-					}
-				}
+			String fmt = "` is not an acceptable value for option '%s', possible values are %s";
+			String rejection = String.format (fmt, name, Arrays.toString (values));
 
-				String fmt = "`%s` is not an acceptable value for option '%s', possible values are %s";
-				throw new RuntimeException (String.format (fmt, value, name, Arrays.toString (values)));
+			return (value) -> {
+				T found = value == null ? null : index.get (value);
+				if ( found != null ) { return found; }
+				throw new RuntimeException ("`" + (value == null ? "" : value.toLowerCase ()) + rejection);
 			};
 		}
 	}
@@ -118,6 +135,60 @@ public abstract class Option<T> {
 		}
 	}
 
+	public static class IntArrayOption extends BaseOption<IntArray> {
+		public IntArrayOption (String name, int [] fallback) {
+			super (name, fallback == null ? null : IntArray.of (fallback), IntArrayOption::parse);
+		}
+		public IntArrayOption (String name) {
+			this (name, null);
+		}
+		private static IntArray parse (String value) {
+			int [] result = new int [count (value)];
+			for ( int i = 0, start = 0; i < result.length; i++ ) {
+				int end = next (value, start);
+				result[i] = Integer.parseInt (value, trimStart (value, start, end), trimEnd (value, start, end), 10);
+				start = end + 1;
+			}
+			return IntArray.wrap (result);
+		}
+	}
+
+	public static class LongArrayOption extends BaseOption<LongArray> {
+		public LongArrayOption (String name, long [] fallback) {
+			super (name, fallback == null ? null : LongArray.of (fallback), LongArrayOption::parse);
+		}
+		public LongArrayOption (String name) {
+			this (name, null);
+		}
+		private static LongArray parse (String value) {
+			long [] result = new long [count (value)];
+			for ( int i = 0, start = 0; i < result.length; i++ ) {
+				int end = next (value, start);
+				result[i] = Long.parseLong (value, trimStart (value, start, end), trimEnd (value, start, end), 10);
+				start = end + 1;
+			}
+			return LongArray.wrap (result);
+		}
+	}
+
+	public static class StringSetOption extends BaseOption<Set<String>> {
+		public StringSetOption (String name, Set<String> fallback) {
+			super (name, fallback == null ? null : Set.copyOf (fallback), StringSetOption::parse);
+		}
+		public StringSetOption (String name) {
+			this (name, null);
+		}
+		private static Set<String> parse (String value) {
+			String [] result = new String [count (value)];
+			for ( int i = 0, start = 0; i < result.length; i++ ) {
+				int end = next (value, start);
+				result[i] = value.substring (trimStart (value, start, end), trimEnd (value, start, end));
+				start = end + 1;
+			}
+			return Set.copyOf (Arrays.asList (result));
+		}
+	}
+
 	public static class PathOption extends BaseOption<Path> {
 		public PathOption (String name, Path fallback) {
 			super (name, fallback, PrimitivesParser.getParser (String.class, Path.class));
@@ -128,6 +199,7 @@ public abstract class Option<T> {
 		public PathOption (String name) {
 			this (name, (Path) null);
 		}
+		@Override protected Object conversionType () { return getClass (); }
 	}
 
 	public static class UriOption extends BaseOption<URI> {
@@ -140,6 +212,7 @@ public abstract class Option<T> {
 		public UriOption (String name) {
 			this (name, (URI) null);
 		}
+		@Override protected Object conversionType () { return getClass (); }
 	}
 
 	public static class DurationOption extends BaseOption<Duration> {
@@ -155,65 +228,135 @@ public abstract class Option<T> {
 			this (name, (Duration) null);
 		}
 
-		private static final Pattern pattern = Pattern.compile (
-			"(\\d+)(ns|ms|s|seconds?|m|minutes?|h|hours?|d|days?|w|weeks?|y|years?)"
-		);
+		@Override protected Object conversionType () { return getClass (); }
+
+		private static final String [] UNITS = {
+			"ns", "ms", "s", "second", "seconds", "m", "minute", "minutes", "h", "hour", "hours",
+			"d", "day", "days", "w", "week", "weeks", "y", "year", "years"
+		};
+
+		private static final long [] NANOS = {
+			1, TimeUnit.MILLISECONDS.toNanos (1),
+			TimeUnit.SECONDS.toNanos (1), TimeUnit.SECONDS.toNanos (1), TimeUnit.SECONDS.toNanos (1),
+			TimeUnit.MINUTES.toNanos (1), TimeUnit.MINUTES.toNanos (1), TimeUnit.MINUTES.toNanos (1),
+			TimeUnit.HOURS.toNanos (1), TimeUnit.HOURS.toNanos (1), TimeUnit.HOURS.toNanos (1),
+			TimeUnit.DAYS.toNanos (1), TimeUnit.DAYS.toNanos (1), TimeUnit.DAYS.toNanos (1),
+			TimeUnit.DAYS.toNanos (7), TimeUnit.DAYS.toNanos (7), TimeUnit.DAYS.toNanos (7),
+			TimeUnit.DAYS.toNanos (365), TimeUnit.DAYS.toNanos (365), TimeUnit.DAYS.toNanos (365)
+		};
 
 		private static Duration parse (String representation) {
-			Duration duration = Duration.ZERO;
-			for ( String part : representation.split (" ") ) {
-				duration = duration.plus (parseSingle (part.toLowerCase ()));
+			long nanos = 0;
+			int length = representation.length ();
+			while ( length > 0 && representation.charAt (length - 1) == ' ' ) { length--; }
+
+			for ( int start = 0; start <= length; ) {
+				int end = representation.indexOf (' ', start);
+				if ( end < 0 || end > length ) { end = length; }
+
+				nanos = Math.addExact (nanos, parsePart (representation, start, end));
+				start = end + 1;
+			}
+
+			return Duration.ofNanos (nanos);
+		}
+
+		private static long parsePart (String representation, int start, int end) {
+			if ( representation.lastIndexOf (':', end - 1) >= start ) {
+				return parseColons (representation, start, end);
+			}
+
+			int digits = skipDigits (representation, start, end);
+			if ( digits == start ) { throw unconvertible (representation, start, end); }
+
+			long amount = parseDigits (representation, start, digits);
+			for ( int i = 0; i < UNITS.length; i++ ) {
+				String unit = UNITS[i];
+				if ( unit.length () == end - digits && representation.regionMatches (true, digits, unit, 0, unit.length ()) ) {
+					return Math.multiplyExact (amount, NANOS[i]);
+				}
 			}
-			return duration;
-		}
-
-		private static Duration parseSingle (String representation) {
-			if ( representation.contains (":") ) {
-				String [] parts = representation.split (":");
-
-				if ( parts.length == 2 ) {
-					return Duration
-						.ofHours (Integer.parseInt (parts[0]))
-						.plusMinutes (Integer.parseInt (parts[1]));
-				} else if ( parts.length == 3 ) {
-					return Duration
-						.ofHours (Integer.parseInt (parts[0]))
-						.plusMinutes (Integer.parseInt (parts[1]))
-						.plusSeconds (Integer.parseInt (parts[2]));
-				} else {
-					throw new RuntimeException (
-						"Wrong number of parts: '" + representation + "'"
-					);
+
+			throw unconvertible (representation, start, end);
+		}
+
+		private static long parseColons (String representation, int start, int end) {
+			long nanos = 0;
+			int fields = 0;
+
+			for ( int position = start; position <= end; fields++ ) {
+				int digits = skipDigits (representation, position, end);
+				if ( digits == position || (digits < end && representation.charAt (digits) != ':') ) {
+					throw unconvertible (representation, start, end);
+				}
+				if ( fields == 3 ) {
+					throw new RuntimeException ("Wrong number of parts: '" + representation.substring (start, end) + "'");
 				}
+
+				long unit = fields == 0 ? NANOS[8] : fields == 1 ? NANOS[5] : NANOS[2];
+				nanos = Math.addExact (nanos, Math.multiplyExact (parseDigits (representation, position, digits), unit));
+				position = digits + 1;
 			}
 
-			Matcher matcher = pattern.matcher (representation);
-			if ( matcher.matches () ) {
-				long amount = Long.parseLong (matcher.group (1));
-				long nanos = toNanos (amount, matcher.group (2));
-				return Duration.ofNanos (nanos);
+			if ( fields < 2 ) {
+				throw new RuntimeException ("Wrong number of parts: '" + representation.substring (start, end) + "'");
 			}
+			return nanos;
+		}
 
-			throw new RuntimeException ("Could not covert part: '" + representation + "'");
+		private static int skipDigits (String representation, int start, int end) {
+			while ( start < end && representation.charAt (start) >= '0' && representation.charAt (start) <= '9' ) { start++; }
+			return start;
 		}
 
-		private static long toNanos (long amount, String s) {
-			switch ( s ) {
-				case "ns": return TimeUnit.NANOSECONDS.toNanos (amount);
-				case "ms": return TimeUnit.MILLISECONDS.toNanos (amount);
-				case "s": case "second": case "seconds": return TimeUnit.SECONDS.toNanos (amount);
-				case "m": case "minute": case "minutes": return TimeUnit.MINUTES.toNanos (amount);
-				case "h": case "hour": case "hours": return TimeUnit.HOURS.toNanos (amount);
-				case "d": case "day": case "days": return TimeUnit.DAYS.toNanos (amount);
-				case "w": case "week": case "weeks": return TimeUnit.DAYS.toNanos (amount * 7);
-				case "y": case "year": case "years": return TimeUnit.DAYS.toNanos (amount * 365);
-				default: throw new RuntimeException ("Invalid duration unit: " + s);
+		private static long parseDigits (String representation, int start, int end) {
+			long value = 0;
+			for ( int i = start; i < end; i++ ) {
+				value = Math.addExact (Math.multiplyExact (value, 10), representation.charAt (i) - '0');
 			}
+			return value;
 		}
+
+		private static RuntimeException unconvertible (String representation, int start, int end) {
+			return new RuntimeException ("Could not covert part: '" + representation.substring (start, end) + "'");
+		}
+	}
+
+	private static int count (String value) {
+		if ( trimStart (value, 0, value.length ()) == value.length () ) { return 0; }
+
+		int count = 1;
+		for ( int i = value.indexOf (','); i >= 0; i = value.indexOf (',', i + 1) ) { count++; }
+		return count;
+	}
+
+	private static int next (String value, int start) {
+		int end = value.indexOf (',', start);
+		return end < 0 ? value.length () : end;
+	}
+
+	private static int trimStart (String value, int start, int end) {
+		while ( start < end && Character.isWhitespace (value.charAt (start)) ) { start++; }
+		return start;
+	}
+
+	private static int trimEnd (String value, int start, int end) {
+		while ( end > start && Character.isWhitespace (value.charAt (end - 1)) ) { end--; }
+		return end;
 	}
 
+	private final int ordinal = ordinals.getAndIncrement ();
+
 	public abstract T parseValue (String value);
 	public abstract String getName ();
 	public abstract T getDefault ();
 
+	public boolean isEquivalent (T first, T second) {
+		return Objects.deepEquals (first, second);
+	}
+
+	public final int ordinal () {
+		return ordinal;
+	}
+
 }
@@ -1,10 +1,54 @@
 package org.tutske.lib.options;
 
+import java.util.ArrayList;
 import java.util.List;
 
 
 public interface OptionConsumer {
 
+	public static interface Transaction extends OptionConsumer {
+		public void commit () throws Exception;
+	}
+
+	public static interface Transactional extends OptionConsumer {
+		public Transaction begin ();
+	}
+
+	public static interface Raw extends OptionConsumer {
+		public void acceptRaw (Option<?> option, List<String> values) throws Exception;
+	}
+
+	public static Raw raw (OptionConsumer consumer) {
+		if ( consumer instanceof Raw ) {
+			return (Raw) consumer;
+		}
+
+		return new Raw () {
+			@Override public <T> void accept (Option<T> option, List<T> values) throws Exception {
+				consumer.accept (option, values);
+			}
+			@Override public void acceptRaw (Option<?> option, List<String> values) throws Exception {
+				List parsed = new ArrayList<> (values.size ());
+				for ( String value : values ) { parsed.add (option.parseValue (value)); }
+				consumer.accept ((Option) option, parsed);
+			}
+		};
+	}
+
+	public static Transaction transaction (OptionConsumer consumer) {
+		if ( consumer instanceof Transactional ) {
+			return ((Transactional) consumer).begin ();
+		}
+
+		return new Transaction () {
+			@Override public <T> void accept (Option<T> option, List<T> values) throws Exception {
+				consumer.accept (option, values);
+			}
+			@Override public void commit () {
+			}
+		};
+	}
+
 	public <T> void accept (Option<T> option, List<T> values) throws Exception;
 
 }
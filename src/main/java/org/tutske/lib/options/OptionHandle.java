@@ -0,0 +1,13 @@
+package org.tutske.lib.options;
+
+import java.util.List;
+
+
+public interface OptionHandle<T> {
+
+	public Option<T> option ();
+	public boolean has ();
+	public T get ();
+	public List<T> getAll ();
+
+}
@@ -0,0 +1,20 @@
+package org.tutske.lib.options;
+
+import java.util.List;
+
+
+public interface OptionSnapshot {
+
+	public long generation ();
+
+	public boolean knows (Option<?> option);
+	public boolean has (Option<?> option);
+	public <T> T get (Option<T> option);
+	public <T> List<T> getAll (Option<T> option);
+
+	public int getInt (Option<Integer> option);
+	public long getLong (Option<Long> option);
+	public double getDouble (Option<Double> option);
+	public boolean getBoolean (Option<Boolean> option);
+
+}
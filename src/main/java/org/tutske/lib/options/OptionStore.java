@@ -3,7 +3,7 @@ package org.tutske.lib.options;
 import java.util.List;
 
 
-public interface OptionStore {
+public interface OptionStore extends AutoCloseable {
 
 	public void bind (OptionSource source);
 
@@ -14,6 +14,30 @@ public interface OptionStore {
 	public <T> T get (Option<T> option);
 	public <T> List<T> getAll (Option<T> option);
 
+	default public int getInt (Option<Integer> option) {
+		Integer value = get (option);
+		if ( value == null ) { throw new MissingValueException (option); }
+		return value;
+	}
+
+	default public long getLong (Option<Long> option) {
+		Long value = get (option);
+		if ( value == null ) { throw new MissingValueException (option); }
+		return value;
+	}
+
+	default public double getDouble (Option<Double> option) {
+		Double value = get (option);
+		if ( value == null ) { throw new MissingValueException (option); }
+		return value;
+	}
+
+	default public boolean getBoolean (Option<Boolean> option) {
+		Boolean value = get (option);
+		if ( value == null ) { throw new MissingValueException (option); }
+		return value;
+	}
+
 	default public <T> void onValue (Option<T> option, StoreChangeConsumer.Value<T> consumer) {
 		onChange (option, (store, opt, value) -> consumer.onValue (value));
 	}
@@ -24,7 +48,27 @@ public interface OptionStore {
 	public <T> void onChange (Option<T> option, StoreChangeConsumer<T> consumer);
 	public <T> void onChanges (Option<T> option, StoreChangeConsumer.Multi<T> consumer);
 
+	default public OptionSnapshot snapshot () {
+		return new CopiedOptionSnapshot (this);
+	}
+
+	default public <T> OptionHandle<T> handle (Option<T> option) {
+		if ( ! knows (option) ) { throw new UnknownOptionException (option); }
+
+		OptionStore store = this;
+		return new OptionHandle<T> () {
+			@Override public Option<T> option () { return option; }
+			@Override public boolean has () { return store.has (option); }
+			@Override public T get () { return store.get (option); }
+			@Override public List<T> getAll () { return store.getAll (option); }
+		};
+	}
+
 	public <T> DynamicOption<T> dynamic (Option<T> option);
 	public <T> DynamicOption.Value<T> dynamicValue (Option<T> option);
 
+	@Override
+	default public void close () {
+	}
+
 }
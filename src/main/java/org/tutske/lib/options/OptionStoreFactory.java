@@ -1,11 +1,17 @@
 package org.tutske.lib.options;
 
 import org.tutske.lib.options.impl.ReplacingOptionStore;
+import org.tutske.lib.options.impl.SnapshotFile;
 import org.tutske.lib.options.sources.ArgumentOptionSource;
 import org.tutske.lib.options.sources.DefaultsOptionSource;
 import org.tutske.lib.options.sources.EnvironmentOptionSource;
 import org.tutske.lib.options.sources.PropertyFileOptionSource;
+import org.tutske.lib.utils.Exceptions;
+import org.tutske.lib.utils.Resource;
 
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -23,6 +29,17 @@ public class OptionStoreFactory {
 		return store;
 	}
 
+	public static OptionStore createLazy (Option ... options) {
+		validateOptions (options);
+		return new ReplacingOptionStore (options).lazyConversion (true);
+	}
+
+	public static OptionStore createLazy (Option [] options, OptionSource ... sources) {
+		OptionStore store = createLazy (options);
+		for ( OptionSource source : sources ) { store.bind (source); }
+		return store;
+	}
+
 	public static OptionStore createServiceOptionStore (Option [] options, String [] args, OptionSource ... sources) {
 		return createServiceOptionStore (options, null, "", args, sources);
 	}
@@ -36,6 +53,10 @@ public class OptionStoreFactory {
 	}
 
 	public static OptionStore createServiceOptionStore (Option [] options, Option<String> config, String prefix, String [] args, OptionSource ... sources) {
+		return buildServiceOptionStore (options, config == null ? null : configName (config, prefix, args), prefix, args);
+	}
+
+	private static OptionStore buildServiceOptionStore (Option [] options, String name, String prefix, String [] args) {
 		DefaultsOptionSource defaults = new DefaultsOptionSource ();
 		PropertyFileOptionSource properties = new PropertyFileOptionSource ();
 		ArgumentOptionSource arguments = new ArgumentOptionSource ();
@@ -43,20 +64,62 @@ public class OptionStoreFactory {
 
 		OptionStore store = createNew (options, defaults, properties, environment, arguments);
 
+		if ( name != null ) {
+			properties.consume ("resource://" + name);
+			properties.consume (name);
+		}
+
 		environment.consume (System.getenv ());
 		arguments.consume (args);
 
-		if ( config != null && store.has (config) ) {
-			String name = store.get (config);
+		return store;
+	}
 
-			properties.consume ("resource://" + name);
-			properties.consume (name);
+	public static OptionStore createCachedServiceOptionStore (Option [] options, Option<String> config, String prefix, String [] args, Path cache) {
+		String name = config == null ? null : configName (config, prefix, args);
+		byte [] fingerprint = fingerprint (options, name, prefix, args);
+
+		OptionStore cached = createNew (options);
+		if ( SnapshotFile.restore (cache, fingerprint, cached) ) { return cached; }
+		cached.close ();
+
+		OptionStore store = buildServiceOptionStore (options, name, prefix, args);
+		try { SnapshotFile.save (cache, fingerprint, store); }
+		catch ( RuntimeException ignore ) {}
+		return store;
+	}
+
+	private static byte [] fingerprint (Option [] options, String config, String prefix, String [] args) {
+		Map<String, String> environment = new HashMap<> ();
+		for ( Map.Entry<String, String> entry : System.getenv ().entrySet () ) {
+			if ( entry.getKey ().startsWith (prefix + "_") ) { environment.put (entry.getKey (), entry.getValue ()); }
+		}
+
+		SnapshotFile.Fingerprint fingerprint = new SnapshotFile.Fingerprint ()
+			.add (options)
+			.add (prefix)
+			.add (args)
+			.add (environment)
+			.add (config);
+
+		if ( config != null ) {
+			try ( InputStream in = Resource.getResource ("resource://" + config) ) { fingerprint.add (in); }
+			catch ( Exception e ) { throw Exceptions.wrap (e); }
+			fingerprint.add (Paths.get (config));
+		}
+
+		return fingerprint.build ();
+	}
+
+	private static String configName (Option<String> config, String prefix, String [] args) {
+		EnvironmentOptionSource environment = new EnvironmentOptionSource (prefix, "_");
+		ArgumentOptionSource arguments = new ArgumentOptionSource ();
 
+		try ( OptionStore bootstrap = createNew (new Option [] { config }, new DefaultsOptionSource (), environment, arguments) ) {
 			environment.consume (System.getenv ());
 			arguments.consume (args);
+			return bootstrap.get (config);
 		}
-
-		return store;
 	}
 
 	private static void validateOptions (Option [] options) {
@@ -30,4 +30,8 @@ public abstract class BaseOptionSource implements OptionSource {
 		if ( current.isEmpty () ) { listeners.remove (consumer); }
 	}
 
+	protected static void report (Throwable failure) {
+		SharedExecutor.report (failure);
+	}
+
 }
@@ -0,0 +1,105 @@
+package org.tutske.lib.options.impl;
+
+import java.util.function.IntUnaryOperator;
+
+
+public final class NameIndex<V> {
+
+	private final IntUnaryOperator normalize;
+	private String [] keys = new String [16];
+	private Object [] values = new Object [16];
+	private int size;
+
+	public NameIndex (IntUnaryOperator normalize) {
+		this.normalize = normalize;
+	}
+
+	public int size () {
+		return size;
+	}
+
+	public void put (String name, V value) {
+		insert (name, value, true);
+	}
+
+	public void putIfAbsent (String name, V value) {
+		insert (name, value, false);
+	}
+
+	public V get (CharSequence chars) {
+		return get (chars, 0, chars.length ());
+	}
+
+	public V get (CharSequence chars, int start, int end) {
+		int mask = keys.length - 1;
+		int index = hash (chars, start, end) & mask;
+
+		for ( String key = keys[index]; key != null; key = keys[index] ) {
+			if ( matches (key, chars, start, end) ) { return (V) values[index]; }
+			index = (index + 1) & mask;
+		}
+
+		return null;
+	}
+
+	private void insert (String name, V value, boolean replace) {
+		if ( (size + 1) * 2 > keys.length ) { resize (keys.length * 2); }
+
+		String key = normalized (name);
+		int mask = keys.length - 1;
+		int index = hash (key, 0, key.length ()) & mask;
+
+		for ( ; keys[index] != null; index = (index + 1) & mask ) {
+			if ( keys[index].equals (key) ) {
+				if ( replace ) { values[index] = value; }
+				return;
+			}
+		}
+
+		keys[index] = key;
+		values[index] = value;
+		size++;
+	}
+
+	private void resize (int capacity) {
+		String [] oldKeys = keys;
+		Object [] oldValues = values;
+
+		keys = new String [capacity];
+		values = new Object [capacity];
+
+		int mask = capacity - 1;
+		for ( int i = 0; i < oldKeys.length; i++ ) {
+			if ( oldKeys[i] == null ) { continue; }
+			int index = hash (oldKeys[i], 0, oldKeys[i].length ()) & mask;
+			while ( keys[index] != null ) { index = (index + 1) & mask; }
+			keys[index] = oldKeys[i];
+			values[index] = oldValues[i];
+		}
+	}
+
+	private String normalized (String name) {
+		char [] chars = new char [name.length ()];
+		for ( int i = 0; i < chars.length; i++ ) {
+			chars[i] = (char) normalize.applyAsInt (name.charAt (i));
+		}
+		return new String (chars);
+	}
+
+	private int hash (CharSequence chars, int start, int end) {
+		int hash = 0;
+		for ( int i = start; i < end; i++ ) {
+			hash = 31 * hash + normalize.applyAsInt (chars.charAt (i));
+		}
+		return hash ^ (hash >>> 16);
+	}
+
+	private boolean matches (String key, CharSequence chars, int start, int end) {
+		if ( key.length () != end - start ) { return false; }
+		for ( int i = 0; i < key.length (); i++ ) {
+			if ( key.charAt (i) != normalize.applyAsInt (chars.charAt (start + i)) ) { return false; }
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,65 @@
+package org.tutske.lib.options.impl;
+
+import org.tutske.lib.options.Option;
+import org.tutske.lib.options.UnknownOptionException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+final class OptionLayout {
+
+	private final List<Option> options = new ArrayList<> ();
+	private final Option [] table;
+	private final int [] slots;
+	private final int mask;
+
+	OptionLayout (List<Option> options) {
+		int capacity = 2;
+		while ( capacity < options.size () * 2 ) { capacity <<= 1; }
+
+		this.table = new Option [capacity];
+		this.slots = new int [capacity];
+		this.mask = capacity - 1;
+
+		for ( Option option : options ) {
+			int index = index (option);
+			if ( table[index] == option ) { continue; }
+
+			table[index] = option;
+			slots[index] = this.options.size ();
+			this.options.add (option);
+		}
+	}
+
+	int size () {
+		return options.size ();
+	}
+
+	List<Option> options () {
+		return Collections.unmodifiableList (options);
+	}
+
+	Option option (int slot) {
+		return options.get (slot);
+	}
+
+	boolean knows (Option<?> option) {
+		return table[index (option)] == option;
+	}
+
+	int slot (Option<?> option) {
+		int index = index (option);
+		if ( table[index] != option ) { throw new UnknownOptionException (option); }
+		return slots[index];
+	}
+
+	private int index (Option<?> option) {
+		int hash = option.ordinal () * 0x9E3779B9;
+		int index = (hash ^ (hash >>> 16)) & mask;
+		while ( table[index] != null && table[index] != option ) { index = (index + 1) & mask; }
+		return index;
+	}
+
+}
@@ -0,0 +1,182 @@
+package org.tutske.lib.options.impl;
+
+import org.tutske.lib.options.MissingValueException;
+import org.tutske.lib.options.Option;
+import org.tutske.lib.options.OptionSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+
+final class OptionValues implements OptionSnapshot {
+
+	static final class Entry {
+		private final Option option;
+		private final List<String> raw;
+		private volatile Converted converted;
+
+		private Entry (Option option, List<String> raw, Converted converted) {
+			this.option = option;
+			this.raw = raw;
+			this.converted = converted;
+		}
+
+		static Entry of (List<?> values) {
+			return new Entry (null, null, new Converted (
+				Collections.unmodifiableList (new ArrayList<> (values))
+			));
+		}
+
+		static Entry raw (Option option, List<String> values) {
+			return new Entry (option, Collections.unmodifiableList (new ArrayList<> (values)), null);
+		}
+
+		boolean isEquivalent (Option option, Entry other) {
+			if ( raw != null && other.raw != null ) { return raw.equals (other.raw); }
+			if ( converted == null || other.converted == null ) { return false; }
+
+			List<?> current = converted.values;
+			List<?> incoming = other.converted.values;
+
+			if ( current.size () != incoming.size () ) { return false; }
+			for ( int i = 0; i < current.size (); i++ ) {
+				if ( ! option.isEquivalent (current.get (i), incoming.get (i)) ) { return false; }
+			}
+			return true;
+		}
+
+		private Converted converted () {
+			Converted result = converted;
+			if ( result != null ) { return result; }
+
+			synchronized ( this ) {
+				if ( converted == null ) {
+					List<Object> values = new ArrayList<> (raw.size ());
+					for ( String value : raw ) { values.add (option.parseValue (value)); }
+					converted = new Converted (Collections.unmodifiableList (values));
+				}
+				return converted;
+			}
+		}
+	}
+
+	private static final class Converted {
+		private final List<Object> values;
+		private final boolean primitive;
+		private final long bits;
+
+		private Converted (List<Object> values) {
+			Object first = values.isEmpty () ? null : values.get (0);
+			this.values = values;
+			this.primitive = first instanceof Number || first instanceof Boolean;
+			this.bits = toBits (first);
+		}
+
+		private static long toBits (Object value) {
+			if ( value instanceof Boolean ) { return (Boolean) value ? 1 : 0; }
+			if ( value instanceof Double || value instanceof Float ) {
+				return Double.doubleToRawLongBits (((Number) value).doubleValue ());
+			}
+			if ( value instanceof Number ) { return ((Number) value).longValue (); }
+			return 0;
+		}
+	}
+
+	private final OptionLayout layout;
+	private final Entry [] entries;
+	private final long generation;
+
+	private OptionValues (OptionLayout layout, Entry [] entries, long generation) {
+		this.layout = layout;
+		this.entries = entries;
+		this.generation = generation;
+	}
+
+	static OptionValues empty (OptionLayout layout) {
+		return new OptionValues (layout, new Entry [layout.size ()], 0);
+	}
+
+	@Override
+	public long generation () {
+		return generation;
+	}
+
+	@Override
+	public boolean knows (Option<?> option) {
+		return layout.knows (option);
+	}
+
+	@Override
+	public boolean has (Option<?> option) {
+		return layout.knows (option) && has (layout.slot (option));
+	}
+
+	@Override
+	public <T> T get (Option<T> option) {
+		return get (layout.slot (option));
+	}
+
+	@Override
+	public <T> List<T> getAll (Option<T> option) {
+		return getAll (layout.slot (option));
+	}
+
+	@Override
+	public int getInt (Option<Integer> option) {
+		return (int) bits (option, layout.slot (option));
+	}
+
+	@Override
+	public long getLong (Option<Long> option) {
+		return bits (option, layout.slot (option));
+	}
+
+	@Override
+	public double getDouble (Option<Double> option) {
+		return Double.longBitsToDouble (bits (option, layout.slot (option)));
+	}
+
+	@Override
+	public boolean getBoolean (Option<Boolean> option) {
+		return bits (option, layout.slot (option)) != 0;
+	}
+
+	boolean has (int slot) {
+		return entries[slot] != null;
+	}
+
+	Entry entry (int slot) {
+		return entries[slot];
+	}
+
+	<T> T get (int slot) {
+		Entry entry = entries[slot];
+		if ( entry == null ) { return null; }
+
+		List<Object> values = entry.converted ().values;
+		return values.isEmpty () ? null : (T) values.get (0);
+	}
+
+	<T> List<T> getAll (int slot) {
+		Entry entry = entries[slot];
+		return entry == null ? Collections.emptyList () : (List<T>) entry.converted ().values;
+	}
+
+	OptionValues with (Map<Integer, Entry> replacements) {
+		Entry [] copy = entries.clone ();
+		for ( Map.Entry<Integer, Entry> replacement : replacements.entrySet () ) {
+			copy[replacement.getKey ()] = replacement.getValue ();
+		}
+		return new OptionValues (layout, copy, generation + 1);
+	}
+
+	private long bits (Option<?> option, int slot) {
+		Entry entry = entries[slot];
+		Converted converted = entry == null ? null : entry.converted ();
+		if ( converted == null || ! converted.primitive ) { throw new MissingValueException (option); }
+		return converted.bits;
+	}
+
+}
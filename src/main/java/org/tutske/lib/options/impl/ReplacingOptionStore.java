@@ -2,30 +2,43 @@ package org.tutske.lib.options.impl;
 
 import org.tutske.lib.options.DynamicOption;
 import org.tutske.lib.options.Option;
+import org.tutske.lib.options.OptionConsumer;
+import org.tutske.lib.options.OptionException;
+import org.tutske.lib.options.OptionHandle;
+import org.tutske.lib.options.OptionSnapshot;
 import org.tutske.lib.options.OptionSource;
 import org.tutske.lib.options.StoreChangeConsumer;
-import org.tutske.lib.options.UnknownOptionException;
 import org.tutske.lib.options.OptionStore;
 import org.tutske.lib.utils.Exceptions;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 
 public class ReplacingOptionStore implements OptionStore {
 
-	private final ExecutorService executor;
-	private final Map<Option, Set<StoreChangeConsumer>> listeners = new HashMap<> ();
-	private final Map<Option, Set<StoreChangeConsumer.Multi>> multiListeners = new HashMap<> ();
-	private final Set<Option> options = new HashSet<> ();
-	private final OptionBag bag = new OptionBag ();
+	private final Supplier<ExecutorService> factory;
+	private final boolean owned;
+	private final Map<Option, Set<StoreChangeConsumer>> listeners = new ConcurrentHashMap<> ();
+	private final Map<Option, Set<StoreChangeConsumer.Multi>> multiListeners = new ConcurrentHashMap<> ();
+	private final OptionLayout layout;
+	private final Handle [] handles;
+	private final AtomicLong suppressed = new AtomicLong ();
+	private volatile OptionValues values;
+	private ExecutorService executor;
+	private boolean closed;
+	private volatile boolean lazy;
 
 	public ReplacingOptionStore (Option ... options) {
 		this (Arrays.asList (options));
@@ -35,81 +48,189 @@ public class ReplacingOptionStore implements OptionStore {
 		this (executor, Arrays.asList (options));
 	}
 
+	public ReplacingOptionStore (Supplier<ExecutorService> executor, Option ... options) {
+		this (executor, Arrays.asList (options));
+	}
+
 	public ReplacingOptionStore (List<Option> options) {
-		this (Executors.newSingleThreadExecutor (), options);
+		this (() -> new SerialExecutor (SharedExecutor.get ()), options);
 	}
 
-	public ReplacingOptionStore (ExecutorService executor,  List<Option> options) {
-		this.options.addAll (options);
-		this.executor = executor;
+	public ReplacingOptionStore (ExecutorService executor, List<Option> options) {
+		this (() -> executor, false, options);
+	}
+
+	public ReplacingOptionStore (Supplier<ExecutorService> executor, List<Option> options) {
+		this (executor, true, options);
+	}
+
+	private ReplacingOptionStore (Supplier<ExecutorService> factory, boolean owned, List<Option> options) {
+		this.layout = new OptionLayout (options);
+		this.values = OptionValues.empty (layout);
+		this.handles = new Handle [layout.size ()];
+		this.factory = factory;
+		this.owned = owned;
+	}
+
+	public ReplacingOptionStore lazyConversion (boolean lazy) {
+		this.lazy = lazy;
+		return this;
 	}
 
 	@Override
 	public void bind (OptionSource source) {
-		try { source.subscribe ((List) options (), this::assign); }
+		try { source.subscribe ((List) options (), new Assignment ()); }
 		catch ( Exception e ) { throw Exceptions.wrap (e); }
 	}
 
-	private <T> void assign (Option<T> option, List<T> values) {
-		assureKnown (option);
-		bag.remove (option);
-		bag.put (option, values.toArray ());
+	private void commit (Map<Integer, OptionValues.Entry> pending) {
+		OptionValues current;
+		Map<Integer, OptionValues.Entry> changes = new LinkedHashMap<> ();
+
+		synchronized ( this ) {
+			for ( Map.Entry<Integer, OptionValues.Entry> entry : pending.entrySet () ) {
+				int slot = entry.getKey ();
+				if ( values.has (slot) && values.entry (slot).isEquivalent (layout.option (slot), entry.getValue ()) ) {
+					suppressed.addAndGet (listenerCount (layout.option (slot)));
+				} else {
+					changes.put (slot, entry.getValue ());
+				}
+			}
+
+			if ( changes.isEmpty () ) { return; }
+
+			current = this.values.with (changes);
+			this.values = current;
+			for ( int slot : changes.keySet () ) {
+				if ( handles[slot] != null ) { handles[slot].update (current); }
+			}
 
-		if ( listeners.containsKey (option) ) {
-			for ( StoreChangeConsumer consumer : listeners.get (option) ) {
-				executor.submit (() -> consumer.onValue (this, option, bag.get (option)));
+			List<Integer> changed = new ArrayList<> (changes.keySet ());
+			for ( int slot : changed ) {
+				if ( listenerCount (layout.option (slot)) > 0 ) {
+					schedule (() -> dispatch (changed));
+					return;
+				}
 			}
 		}
+	}
+
+	private int listenerCount (Option option) {
+		return listeners.getOrDefault (option, Collections.emptySet ()).size ()
+			+ multiListeners.getOrDefault (option, Collections.emptySet ()).size ();
+	}
 
-		if ( multiListeners.containsKey (option) ) {
-			for ( StoreChangeConsumer.Multi consumer : multiListeners.get (option) ) {
-				executor.submit (() -> consumer.onValue (this, option, bag.getAll (option)));
+	private void dispatch (List<Integer> changed) {
+		OptionValues current = values;
+		Throwable failure = null;
+
+		for ( int slot : changed ) {
+			Option option = layout.option (slot);
+
+			for ( StoreChangeConsumer consumer : listeners.getOrDefault (option, Collections.emptySet ()) ) {
+				try { consumer.onValue (this, option, current.get (slot)); }
+				catch ( Exception e ) { failure = collect (failure, e); }
+			}
+
+			for ( StoreChangeConsumer.Multi consumer : multiListeners.getOrDefault (option, Collections.emptySet ()) ) {
+				try { consumer.onValue (this, option, current.getAll (slot)); }
+				catch ( Exception e ) { failure = collect (failure, e); }
 			}
 		}
+
+		if ( failure != null ) { SharedExecutor.report (failure); }
+	}
+
+	private static void deliver (Runnable notification) {
+		try { notification.run (); }
+		catch ( RuntimeException e ) { SharedExecutor.report (e); }
+	}
+
+	private static Throwable collect (Throwable failure, Throwable next) {
+		if ( failure == null ) { return next; }
+		failure.addSuppressed (next);
+		return failure;
 	}
 
 	@Override
 	public List<Option<?>> options () {
-		return new LinkedList<Option<?>> ((Set) options);
+		return new LinkedList<Option<?>> ((List) layout.options ());
 	}
 
 	@Override
 	public boolean knows (Option<?> option) {
-		return options.contains (option);
+		return layout.knows (option);
 	}
 
 	@Override
 	public boolean has (Option<?> option) {
-		return bag.containsKey (option);
+		return values.has (option);
 	}
 
 	@Override
 	public <T> T get (Option<T> option) {
-		assureKnown (option);
-		return bag.get (option);
+		return values.get (option);
 	}
 
 	@Override
 	public <T> List<T> getAll (Option<T> option) {
-		assureKnown (option);
-		return bag.getAll (option);
+		return values.getAll (option);
+	}
+
+	@Override
+	public int getInt (Option<Integer> option) {
+		return values.getInt (option);
+	}
+
+	@Override
+	public long getLong (Option<Long> option) {
+		return values.getLong (option);
+	}
+
+	@Override
+	public double getDouble (Option<Double> option) {
+		return values.getDouble (option);
+	}
+
+	@Override
+	public boolean getBoolean (Option<Boolean> option) {
+		return values.getBoolean (option);
 	}
 
 	@Override
 	public <T> void onChange (Option<T> option, StoreChangeConsumer<T> consumer) {
-		assureKnown (option);
-		this.listeners.computeIfAbsent (option, key -> new HashSet<> ()).add (consumer);
-		if ( bag.containsKey (option) ) {
-			executor.submit (() -> consumer.onValue (this, option, bag.get (option)));
+		int slot = slot (option);
+		this.listeners.computeIfAbsent (option, key -> new CopyOnWriteArraySet<> ()).add (consumer);
+		OptionValues current = values;
+		if ( current.has (slot) ) {
+			executor ().execute (() -> deliver (() -> consumer.onValue (this, option, current.get (slot))));
 		}
 	}
 
 	@Override
 	public <T> void onChanges (Option<T> option, StoreChangeConsumer.Multi<T> consumer) {
-		assureKnown (option);
-		this.multiListeners.computeIfAbsent (option, key -> new HashSet<> ()).add (consumer);
-		if ( bag.containsKey (option) ) {
-			executor.submit (() -> consumer.onValue (this, option, bag.getAll (option)));
+		int slot = slot (option);
+		this.multiListeners.computeIfAbsent (option, key -> new CopyOnWriteArraySet<> ()).add (consumer);
+		OptionValues current = values;
+		if ( current.has (slot) ) {
+			executor ().execute (() -> deliver (() -> consumer.onValue (this, option, current.getAll (slot))));
+		}
+	}
+
+	@Override
+	public OptionSnapshot snapshot () {
+		return values;
+	}
+
+	@Override
+	public <T> OptionHandle<T> handle (Option<T> option) {
+		int slot = slot (option);
+		synchronized ( this ) {
+			if ( handles[slot] == null ) {
+				handles[slot] = new Handle<> (option, slot);
+				handles[slot].update (values);
+			}
+			return handles[slot];
 		}
 	}
 
@@ -123,9 +244,123 @@ public class ReplacingOptionStore implements OptionStore {
 		return consumer -> onValue (option, consumer);
 	}
 
-	private void assureKnown (Option<?> option) {
-		if ( ! options.contains (option) ) {
-			throw new UnknownOptionException (option);
+	public long suppressedNotifications () {
+		return suppressed.get ();
+	}
+
+	@Override
+	public void close () {
+		ExecutorService executor;
+		synchronized ( this ) {
+			if ( closed ) { return; }
+			closed = true;
+			executor = this.executor;
+		}
+
+		listeners.clear ();
+		multiListeners.clear ();
+		if ( owned && executor != null ) { executor.shutdown (); }
+	}
+
+	private synchronized void schedule (Runnable task) {
+		if ( ! closed ) { executor ().execute (task); }
+	}
+
+	private synchronized ExecutorService executor () {
+		if ( closed ) { throw new OptionException ("Option store has been closed"); }
+		if ( executor == null ) { executor = factory.get (); }
+		return executor;
+	}
+
+	private int slot (Option<?> option) {
+		return layout.slot (option);
+	}
+
+	private static class Handle<T> implements OptionHandle<T> {
+		private final Option<T> option;
+		private final int slot;
+		private volatile Converted<T> current;
+
+		private Handle (Option<T> option, int slot) {
+			this.option = option;
+			this.slot = slot;
+		}
+
+		private void update (OptionValues values) {
+			if ( ! values.has (slot) ) { current = new Converted<> (false, Collections.emptyList (), null); return; }
+
+			try { current = new Converted<> (true, values.getAll (slot), null); }
+			catch ( RuntimeException e ) { current = new Converted<> (true, Collections.emptyList (), e); }
+		}
+
+		@Override public Option<T> option () { return option; }
+		@Override public boolean has () { return current.present; }
+		@Override public T get () { return current.value (); }
+		@Override public List<T> getAll () { return current.values (); }
+	}
+
+	private static final class Converted<T> {
+		private final boolean present;
+		private final T value;
+		private final List<T> values;
+		private final RuntimeException failure;
+
+		private Converted (boolean present, List<T> values, RuntimeException failure) {
+			this.present = present;
+			this.value = values.isEmpty () ? null : values.get (0);
+			this.values = values;
+			this.failure = failure;
+		}
+
+		private T value () {
+			if ( failure != null ) { throw failure; }
+			return value;
+		}
+
+		private List<T> values () {
+			if ( failure != null ) { throw failure; }
+			return values;
+		}
+	}
+
+	private class Assignment implements OptionConsumer.Transactional, OptionConsumer.Raw {
+		@Override public <T> void accept (Option<T> option, List<T> values) {
+			Batch batch = new Batch ();
+			batch.accept (option, values);
+			batch.commit ();
+		}
+
+		@Override public void acceptRaw (Option<?> option, List<String> values) {
+			Batch batch = new Batch ();
+			batch.acceptRaw (option, values);
+			batch.commit ();
+		}
+
+		@Override public Transaction begin () {
+			return new Batch ();
+		}
+	}
+
+	private class Batch implements OptionConsumer.Transaction, OptionConsumer.Raw {
+		private final Map<Integer, OptionValues.Entry> pending = new LinkedHashMap<> ();
+
+		@Override public <T> void accept (Option<T> option, List<T> values) {
+			pending.put (slot (option), OptionValues.Entry.of (values));
+		}
+
+		@Override public void acceptRaw (Option<?> option, List<String> values) {
+			if ( lazy ) {
+				pending.put (slot (option), OptionValues.Entry.raw (option, values));
+			} else {
+				List<Object> parsed = new ArrayList<> (values.size ());
+				for ( String value : values ) { parsed.add (option.parseValue (value)); }
+				pending.put (slot (option), OptionValues.Entry.of (parsed));
+			}
+		}
+
+		@Override public void commit () {
+			ReplacingOptionStore.this.commit (pending);
+			pending.clear ();
 		}
 	}
 
@@ -0,0 +1,97 @@
+package org.tutske.lib.options.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+
+final class SerialExecutor extends AbstractExecutorService {
+
+	private final Queue<Runnable> tasks = new ArrayDeque<> ();
+	private final Executor delegate;
+	private boolean running;
+	private boolean shutdown;
+
+	SerialExecutor (Executor delegate) {
+		this.delegate = delegate;
+	}
+
+	@Override
+	public void execute (Runnable task) {
+		synchronized ( this ) {
+			if ( shutdown ) { throw new RejectedExecutionException ("Executor has been shut down"); }
+			tasks.add (task);
+			if ( running ) { return; }
+			running = true;
+		}
+
+		try {
+			delegate.execute (this::drain);
+		} catch ( RuntimeException e ) {
+			synchronized ( this ) {
+				tasks.clear ();
+				running = false;
+				notifyAll ();
+			}
+			throw e;
+		}
+	}
+
+	private void drain () {
+		while ( true ) {
+			Runnable task;
+			synchronized ( this ) {
+				task = tasks.poll ();
+				if ( task == null ) {
+					running = false;
+					notifyAll ();
+					return;
+				}
+			}
+			try { task.run (); }
+			catch ( RuntimeException e ) { SharedExecutor.report (e); }
+		}
+	}
+
+	@Override
+	public synchronized void shutdown () {
+		shutdown = true;
+	}
+
+	@Override
+	public List<Runnable> shutdownNow () {
+		synchronized ( this ) {
+			shutdown = true;
+			List<Runnable> pending = new ArrayList<> (tasks);
+			tasks.clear ();
+			return pending;
+		}
+	}
+
+	@Override
+	public synchronized boolean isShutdown () {
+		return shutdown;
+	}
+
+	@Override
+	public synchronized boolean isTerminated () {
+		return shutdown && ! running;
+	}
+
+	@Override
+	public synchronized boolean awaitTermination (long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime () + unit.toNanos (timeout);
+		while ( ! isTerminated () ) {
+			long remaining = deadline - System.nanoTime ();
+			if ( remaining <= 0 ) { return false; }
+			TimeUnit.NANOSECONDS.timedWait (this, remaining);
+		}
+		return true;
+	}
+
+}
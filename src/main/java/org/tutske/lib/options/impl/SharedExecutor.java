@@ -0,0 +1,55 @@
+package org.tutske.lib.options.impl;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+final class SharedExecutor {
+
+	private static final class Holder {
+		private static final ExecutorService executor = create ();
+	}
+
+	private SharedExecutor () {}
+
+	static ExecutorService get () {
+		return Holder.executor;
+	}
+
+	static void report (Throwable failure) {
+		Thread thread = Thread.currentThread ();
+		thread.getUncaughtExceptionHandler ().uncaughtException (thread, failure);
+	}
+
+	private static ExecutorService create () {
+		try {
+			Method method = Executors.class.getMethod ("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) method.invoke (null);
+		} catch ( Exception ignore ) {
+		}
+
+		int size = Math.max (2, Runtime.getRuntime ().availableProcessors ());
+		ThreadPoolExecutor executor = new ThreadPoolExecutor (
+			size, size, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<> (), new DaemonFactory ()
+		);
+		executor.allowCoreThreadTimeOut (true);
+		return executor;
+	}
+
+	private static final class DaemonFactory implements ThreadFactory {
+		private final AtomicInteger count = new AtomicInteger ();
+
+		@Override public Thread newThread (Runnable runnable) {
+			Thread thread = new Thread (runnable, "option-store-dispatch-" + count.incrementAndGet ());
+			thread.setDaemon (true);
+			return thread;
+		}
+	}
+
+}
@@ -0,0 +1,290 @@
+package org.tutske.lib.options.impl;
+
+import org.tutske.lib.options.Option;
+import org.tutske.lib.options.OptionConsumer;
+import org.tutske.lib.options.OptionSnapshot;
+import org.tutske.lib.options.OptionSource;
+import org.tutske.lib.options.OptionStore;
+import org.tutske.lib.utils.Exceptions;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+public final class SnapshotFile {
+
+	private static final int MAGIC = 0x4f505453;
+	private static final int VERSION = 1;
+
+	public static final class Fingerprint {
+		private final MessageDigest digest;
+
+		public Fingerprint () {
+			try { digest = MessageDigest.getInstance ("SHA-256"); }
+			catch ( Exception e ) { throw Exceptions.wrap (e); }
+		}
+
+		public Fingerprint add (String value) {
+			if ( value == null ) { digest.update ((byte) 0); return this; }
+
+			byte [] bytes = value.getBytes (StandardCharsets.UTF_8);
+			digest.update ((byte) 1);
+			digest.update (intBytes (bytes.length));
+			digest.update (bytes);
+			return this;
+		}
+
+		public Fingerprint add (String ... values) {
+			digest.update (intBytes (values.length));
+			for ( String value : values ) { add (value); }
+			return this;
+		}
+
+		public Fingerprint add (Map<String, String> values) {
+			Map<String, String> sorted = new TreeMap<> (values);
+			digest.update (intBytes (sorted.size ()));
+			for ( Map.Entry<String, String> entry : sorted.entrySet () ) {
+				add (entry.getKey ());
+				add (entry.getValue ());
+			}
+			return this;
+		}
+
+		public Fingerprint add (Option<?> ... options) {
+			digest.update (intBytes (options.length));
+			for ( Option<?> option : options ) {
+				add (option.getName ());
+				add (option.getClass ().getName ());
+			}
+			return this;
+		}
+
+		public Fingerprint add (Path path) {
+			add (path.toString ());
+			if ( ! Files.isRegularFile (path) ) { digest.update ((byte) 0); return this; }
+
+			try {
+				add (Files.getLastModifiedTime (path).toString ());
+				digest.update ((byte) 1);
+				digest.update (Files.readAllBytes (path));
+			} catch ( IOException e ) {
+				throw Exceptions.wrap (e);
+			}
+			return this;
+		}
+
+		public Fingerprint add (InputStream in) {
+			if ( in == null ) { digest.update ((byte) 0); return this; }
+
+			byte [] buffer = new byte [8192];
+			digest.update ((byte) 1);
+			try { for ( int read = in.read (buffer); read >= 0; read = in.read (buffer) ) { digest.update (buffer, 0, read); } }
+			catch ( IOException e ) { throw Exceptions.wrap (e); }
+			return this;
+		}
+
+		public byte [] build () {
+			return digest.digest ();
+		}
+
+		private static byte [] intBytes (int value) {
+			return new byte [] { (byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value };
+		}
+	}
+
+	private SnapshotFile () {}
+
+	public static boolean restore (Path file, byte [] fingerprint, OptionStore store) {
+		if ( ! Files.isRegularFile (file) ) { return false; }
+
+		Map<Option, List<Object>> values;
+		try ( DataInputStream in = new DataInputStream (new BufferedInputStream (Files.newInputStream (file))) ) {
+			values = read (in, Files.size (file), fingerprint, store.options ());
+		} catch ( Exception e ) {
+			return false;
+		}
+
+		if ( values == null ) { return false; }
+		store.bind (new OptionSource () {
+			@Override public void subscribe (List<Option> options, OptionConsumer consumer) {
+				OptionConsumer.Transaction transaction = OptionConsumer.transaction (consumer);
+
+				try {
+					for ( Map.Entry<Option, List<Object>> entry : values.entrySet () ) {
+						transaction.accept (entry.getKey (), entry.getValue ());
+					}
+					transaction.commit ();
+				} catch ( Exception e ) {
+					throw Exceptions.wrap (e);
+				}
+			}
+			@Override public void unsubscribe (List<Option> options, OptionConsumer consumer) {
+			}
+		});
+		return true;
+	}
+
+	public static boolean save (Path file, byte [] fingerprint, OptionStore store) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream ();
+
+		try ( DataOutputStream out = new DataOutputStream (bytes) ) {
+			write (out, fingerprint, store.options (), store.snapshot ());
+		} catch ( NotSerializableException e ) {
+			return false;
+		} catch ( IOException e ) {
+			throw Exceptions.wrap (e);
+		}
+
+		Path temp = null;
+		try {
+			Path parent = file.toAbsolutePath ().getParent ();
+			Files.createDirectories (parent);
+
+			temp = Files.createTempFile (parent, file.getFileName ().toString (), ".tmp");
+			try ( BufferedOutputStream out = new BufferedOutputStream (Files.newOutputStream (temp)) ) {
+				bytes.writeTo (out);
+			}
+			Files.move (temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch ( IOException e ) {
+			throw Exceptions.wrap (e);
+		} finally {
+			if ( temp != null ) {
+				try { Files.deleteIfExists (temp); }
+				catch ( IOException ignore ) {}
+			}
+		}
+
+		return true;
+	}
+
+	private static void write (DataOutputStream out, byte [] fingerprint, List<Option<?>> options, OptionSnapshot snapshot) throws IOException {
+		out.writeInt (MAGIC);
+		out.writeInt (VERSION);
+		out.writeInt (fingerprint.length);
+		out.write (fingerprint);
+
+		List<Option<?>> present = new ArrayList<> ();
+		for ( Option<?> option : options ) {
+			if ( snapshot.has (option) ) { present.add (option); }
+		}
+
+		out.writeInt (present.size ());
+		for ( Option<?> option : present ) {
+			List<?> values = snapshot.getAll (option);
+			out.writeUTF (option.getName ());
+			out.writeInt (values.size ());
+			for ( Object value : values ) { writeValue (out, value); }
+		}
+	}
+
+	private static Map<Option, List<Object>> read (DataInputStream in, long size, byte [] fingerprint, List<Option<?>> options) throws Exception {
+		if ( in.readInt () != MAGIC || in.readInt () != VERSION ) { return null; }
+		if ( in.readInt () != fingerprint.length ) { return null; }
+
+		byte [] stored = new byte [fingerprint.length];
+		in.readFully (stored);
+		if ( ! Arrays.equals (stored, fingerprint) ) { return null; }
+
+		Map<String, Option> byName = new HashMap<> ();
+		for ( Option<?> option : options ) { byName.put (option.getName (), option); }
+
+		Map<Option, List<Object>> values = new LinkedHashMap<> ();
+		for ( int i = in.readInt (); i > 0; i-- ) {
+			Option option = byName.get (in.readUTF ());
+			if ( option == null ) { return null; }
+
+			int count = length (in, size);
+			List<Object> list = new ArrayList<> (count);
+			for ( int j = 0; j < count; j++ ) { list.add (readValue (in, size, option)); }
+			values.put (option, list);
+		}
+
+		return values;
+	}
+
+	private static void writeValue (DataOutputStream out, Object value) throws IOException {
+		if ( value == null ) { out.writeByte ('N'); }
+		else if ( value instanceof String ) { out.writeByte ('S'); writeString (out, (String) value); }
+		else if ( value instanceof Integer ) { out.writeByte ('I'); out.writeInt ((Integer) value); }
+		else if ( value instanceof Long ) { out.writeByte ('J'); out.writeLong ((Long) value); }
+		else if ( value instanceof Double ) { out.writeByte ('D'); out.writeDouble ((Double) value); }
+		else if ( value instanceof Float ) { out.writeByte ('F'); out.writeFloat ((Float) value); }
+		else if ( value instanceof Boolean ) { out.writeByte ('Z'); out.writeBoolean ((Boolean) value); }
+		else if ( value instanceof Duration ) {
+			out.writeByte ('T');
+			out.writeLong (((Duration) value).getSeconds ());
+			out.writeInt (((Duration) value).getNano ());
+		}
+		else if ( value instanceof Path ) { out.writeByte ('P'); writeString (out, value.toString ()); }
+		else if ( value instanceof URI ) { out.writeByte ('U'); writeString (out, value.toString ()); }
+		else if ( value instanceof Enum ) { out.writeByte ('E'); writeString (out, ((Enum<?>) value).name ()); }
+		else { throw new NotSerializableException (value.getClass ().getName ()); }
+	}
+
+	private static Object readValue (DataInputStream in, long size, Option option) throws Exception {
+		char tag = (char) in.readByte ();
+		switch ( tag ) {
+			case 'N': return null;
+			case 'S': return readString (in, size);
+			case 'I': return in.readInt ();
+			case 'J': return in.readLong ();
+			case 'D': return in.readDouble ();
+			case 'F': return in.readFloat ();
+			case 'Z': return in.readBoolean ();
+			case 'T': return Duration.ofSeconds (in.readLong (), in.readInt ());
+			case 'P': return Paths.get (readString (in, size));
+			case 'U': return URI.create (readString (in, size));
+			case 'E': return readEnum (in, size, option);
+			default: throw new IOException ("Unknown value tag `" + tag + "` in snapshot file");
+		}
+	}
+
+	private static void writeString (DataOutputStream out, String value) throws IOException {
+		byte [] bytes = value.getBytes (StandardCharsets.UTF_8);
+		out.writeInt (bytes.length);
+		out.write (bytes);
+	}
+
+	private static String readString (DataInputStream in, long size) throws IOException {
+		byte [] bytes = new byte [length (in, size)];
+		in.readFully (bytes);
+		return new String (bytes, StandardCharsets.UTF_8);
+	}
+
+	private static Object readEnum (DataInputStream in, long size, Option option) throws IOException {
+		String name = readString (in, size);
+		Object value = option.parseValue (name);
+		if ( ! (value instanceof Enum) || ! ((Enum<?>) value).name ().equals (name) ) {
+			throw new IOException ("Snapshot value `" + name + "` does not match option " + option.getName ());
+		}
+		return value;
+	}
+
+	private static int length (DataInputStream in, long size) throws IOException {
+		int length = in.readInt ();
+		if ( length < 0 || length > size ) { throw new IOException ("Invalid length " + length + " in snapshot file"); }
+		return length;
+	}
+
+}
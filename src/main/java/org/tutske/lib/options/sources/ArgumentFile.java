@@ -0,0 +1,87 @@
+package org.tutske.lib.options.sources;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+
+final class ArgumentFile {
+
+	private static final long MAP_THRESHOLD = 1 << 20;
+	private static final long WINDOW = 1 << 26;
+
+	private ArgumentFile () {}
+
+	static void read (Path path, Consumer<String> consumer) throws IOException {
+		if ( Files.size (path) < MAP_THRESHOLD ) { readBuffered (path, consumer); }
+		else { readMapped (path, consumer); }
+	}
+
+	private static void readBuffered (Path path, Consumer<String> consumer) throws IOException {
+		try ( BufferedReader reader = Files.newBufferedReader (path, StandardCharsets.UTF_8) ) {
+			for ( String line = reader.readLine (); line != null; line = reader.readLine () ) {
+				emit (line, consumer);
+			}
+		}
+	}
+
+	private static void readMapped (Path path, Consumer<String> consumer) throws IOException {
+		CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder ();
+		CharBuffer chars = CharBuffer.allocate (8192);
+		StringBuilder line = new StringBuilder ();
+
+		try ( FileChannel channel = FileChannel.open (path, StandardOpenOption.READ) ) {
+			long size = channel.size ();
+			long position = 0;
+			boolean last = size == 0;
+
+			while ( ! last ) {
+				MappedByteBuffer bytes = channel.map (
+					FileChannel.MapMode.READ_ONLY, position, Math.min (WINDOW, size - position)
+				);
+				last = position + bytes.limit () >= size;
+
+				for ( CoderResult result = CoderResult.OVERFLOW; result.isOverflow (); ) {
+					result = decoder.decode (bytes, chars, last);
+					if ( result.isError () ) { result.throwException (); }
+					drain (chars, line, consumer);
+				}
+
+				position += bytes.position ();
+			}
+
+			decoder.flush (chars);
+			drain (chars, line, consumer);
+		}
+
+		emit (line.toString (), consumer);
+	}
+
+	private static void drain (CharBuffer chars, StringBuilder line, Consumer<String> consumer) {
+		chars.flip ();
+		while ( chars.hasRemaining () ) {
+			char c = chars.get ();
+			if ( c != '\n' ) { line.append (c); continue; }
+
+			emit (line.toString (), consumer);
+			line.setLength (0);
+		}
+		chars.clear ();
+	}
+
+	private static void emit (String line, Consumer<String> consumer) {
+		if ( line.endsWith ("\r") ) { line = line.substring (0, line.length () - 1); }
+		if ( line.isEmpty () || line.charAt (0) == '#' ) { return; }
+		consumer.accept (line);
+	}
+
+}
@@ -5,127 +5,195 @@ import org.tutske.lib.options.Option.*;
 import org.tutske.lib.options.OptionConsumer;
 import org.tutske.lib.options.OptionSource;
 import org.tutske.lib.options.impl.BaseOptionSource;
+import org.tutske.lib.options.impl.NameIndex;
 import org.tutske.lib.utils.Exceptions;
 
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 
 public class ArgumentOptionSource extends BaseOptionSource implements OptionSource {
 
-	public void consume (String [] args) {
-		for ( Map.Entry<OptionConsumer, List<Option>> entry : listeners.entrySet () ) {
-			try { processOptions (entry.getKey (), entry.getValue (), args, true); }
-			catch ( Exception e ) { throw Exceptions.wrap (e); }
+	private static final String [] NEGATIONS = { "no ", "not ", "non " };
+
+	private static final class Lookup {
+		private final Option [] options;
+		private final String [][] names;
+
+		private Lookup (List<Option> options) {
+			this.options = options.toArray (new Option [options.size ()]);
+			this.names = new String [this.options.length][];
+
+			for ( int i = 0; i < this.options.length; i++ ) {
+				Option option = this.options[i];
+				boolean negatable = option instanceof BooleanOption;
+
+				names[i] = new String [negatable ? NEGATIONS.length + 1 : 1];
+				names[i][0] = normalize (option.getName ());
+
+				for ( int j = 1; j < names[i].length; j++ ) {
+					names[i][j] = NEGATIONS[j - 1] + names[i][0];
+				}
+			}
 		}
 	}
 
-	public String [] consumeTailed (String [] args) {
-		return consumeTailed (args, false);
-	}
+	private static final class Pass {
+		private final Map<String, List<String>> gathered = new HashMap<> ();
+		private final List<String> tail = new ArrayList<> ();
+		private final NameIndex<String> index;
+		private final boolean skipUnknown;
+		private int separator = -1;
 
-	public String [] consumeTailed (String [] args, boolean skipUnknown) {
-		if ( listeners.size () > 1 ) { throw new RuntimeException ("Can only give a tail with single listener"); }
-		Map.Entry<OptionConsumer, List<Option>> entry = listeners.entrySet ().iterator ().next ();
-		return processOptions (entry.getKey (), entry.getValue (), args, skipUnknown);
-	}
+		private Pass (NameIndex<String> index, boolean skipUnknown) {
+			this.index = index;
+			this.skipUnknown = skipUnknown;
+		}
 
-	private String [] processOptions (OptionConsumer consumer, List<Option> options, String [] args, boolean skipUnknown) {
-		List<String> tail = new LinkedList<> ();
-		Map<String, Option> lookup = gatherOptions (options);
-		Map<String, List<String>> gathered = new HashMap<> ();
+		private void process (String arg) {
+			boolean candidate = separator < 0 && (tail.isEmpty () || skipUnknown)
+				&& arg.startsWith ("--") && ! "--".equals (arg);
 
-		for ( String arg : args ) {
-			if ( (! tail.isEmpty () && ! skipUnknown) || tail.contains ("--") ) {
-				tail.add (arg);
-				continue;
-			}
+			if ( candidate ) {
+				int split = arg.indexOf ('=');
+				String name = index.get (arg, 2, split < 0 ? arg.length () : split);
 
-			if ( "--".equals (arg) || ! arg.startsWith ("--") ) {
-				tail.add (arg);
-				continue;
+				if ( name != null ) {
+					String value = split < 0 ? "" : arg.substring (split + 1);
+					gathered.computeIfAbsent (name, key -> new ArrayList<> (2)).add (value);
+					return;
+				}
 			}
 
-			String name = normalize (extractName (arg));
-			String value = extractValue (arg);
-			Option option = lookup.get (name);
+			if ( separator < 0 && "--".equals (arg) ) { separator = tail.size (); }
+			tail.add (arg);
+		}
 
-			if ( option != null ) { gathered.computeIfAbsent (name, key -> new LinkedList<> ()).add (value); }
-			else { tail.add (arg); }
+		private String [] tail () {
+			if ( separator >= 0 ) { tail.remove (separator); }
+			return tail.toArray (new String [tail.size ()]);
 		}
+	}
 
-		notifyOptions (consumer, options, gathered);
+	private final Map<OptionConsumer, Lookup> lookups = new LinkedHashMap<> ();
+	private final boolean argumentFiles;
+	private NameIndex<String> index = compile (lookups.values ());
 
-		tail.remove ("--");
-		return tail.toArray (new String [] {});
+	public ArgumentOptionSource () {
+		this (false);
 	}
 
-	private void notifyOptions (OptionConsumer consumer, List<Option> options, Map<String, List<String>> gathered) {
-		for ( Option option : options ) {
-			if ( option instanceof Option.BooleanOption ) { notifyBooleanOption (option, consumer, gathered); }
-			else { notifyNormalOption (option, consumer, gathered); }
-		}
+	public ArgumentOptionSource (boolean argumentFiles) {
+		this.argumentFiles = argumentFiles;
 	}
 
-	private void notifyBooleanOption (Option option, OptionConsumer consumer, Map<String, List<String>> gathered) {
-		List<String> values = gathered.get (option.getName ());
+	@Override
+	public void subscribe (List<Option> options, OptionConsumer consumer) {
+		super.subscribe (options, consumer);
+		lookups.put (consumer, new Lookup (listeners.get (consumer)));
+		index = compile (lookups.values ());
+	}
 
-		boolean negated = values == null;
+	@Override
+	public void unsubscribe (List<Option> options, OptionConsumer consumer) {
+		super.unsubscribe (options, consumer);
+		if ( listeners.containsKey (consumer) ) { lookups.put (consumer, new Lookup (listeners.get (consumer))); }
+		else { lookups.remove (consumer); }
+		index = compile (lookups.values ());
+	}
 
-		if ( values == null ) { values = gathered.get ("no " + option.getName ()); }
-		if ( values == null ) { values = gathered.get ("not " + option.getName ()); }
-		if ( values == null ) { values = gathered.get ("non " + option.getName ()); }
+	public void consume (String [] args) {
+		processOptions (args, true);
+	}
 
-		if ( values == null ) { return; }
+	public String [] consumeTailed (String [] args) {
+		return consumeTailed (args, false);
+	}
 
-		notify (consumer, option, values.stream ()
-			.map (val -> negated ? (! (Boolean) option.parseValue (val)) : option.parseValue (val))
-			.collect(Collectors.toList ())
-		);
+	public String [] consumeTailed (String [] args, boolean skipUnknown) {
+		return processOptions (args, skipUnknown);
 	}
 
-	private void notifyNormalOption (Option option, OptionConsumer consumer, Map<String, List<String>> gathered) {
-		List<String> values = gathered.get (option.getName ());
-		if ( values == null ) { return; }
-		notify (consumer, option, values.stream ().map (val -> option.parseValue (val)).collect(Collectors.toList()));
+	private String [] processOptions (String [] args, boolean skipUnknown) {
+		Pass pass = new Pass (index, skipUnknown);
+
+		for ( String arg : args ) {
+			if ( argumentFiles && pass.separator < 0 && arg.length () > 1 && arg.charAt (0) == '@' ) {
+				try { ArgumentFile.read (Paths.get (arg.substring (1)), pass::process); }
+				catch ( Exception e ) { throw Exceptions.wrap (e); }
+			} else {
+				pass.process (arg);
+			}
+		}
+
+		for ( Map.Entry<OptionConsumer, Lookup> entry : lookups.entrySet () ) {
+			notifyOptions (entry.getKey (), entry.getValue (), pass.gathered);
+		}
+
+		return pass.tail ();
 	}
 
-	private void notify (OptionConsumer consumer, Option option, List values) {
-		try { consumer.accept (option, values); }
-		catch ( Exception exception ) { throw Exceptions.wrap (exception); }
+	private NameIndex<String> compile (Collection<Lookup> lookups) {
+		NameIndex<String> index = new NameIndex<> (ArgumentOptionSource::normalize);
+
+		for ( Lookup lookup : lookups ) {
+			for ( String [] names : lookup.names ) {
+				for ( String name : names ) { index.putIfAbsent (name, name); }
+			}
+		}
+
+		return index;
 	}
 
-	private Map<String, Option> gatherOptions (List<Option> options) {
-		Map<String, Option> gathered = new HashMap<> ();
+	private static String normalize (String name) {
+		return name.replace ('-', ' ');
+	}
 
-		for ( Option option : options ) {
-			gathered.put (option.getName (), option);
+	private static int normalize (int c) {
+		return c == '-' ? ' ' : c;
+	}
 
-			if ( ! (option instanceof BooleanOption) ) { continue; }
+	private void notifyOptions (OptionConsumer consumer, Lookup lookup, Map<String, List<String>> gathered) {
+		OptionConsumer.Transaction transaction = OptionConsumer.transaction (consumer);
+		OptionConsumer.Raw raw = OptionConsumer.raw (transaction);
 
-			gathered.putIfAbsent ("no " + option.getName (), option);
-			gathered.putIfAbsent ("not " + option.getName (), option);
-			gathered.putIfAbsent ("non " + option.getName (), option);
+		for ( int i = 0; i < lookup.options.length; i++ ) {
+			notifyOption (lookup.options[i], lookup.names[i], raw, gathered);
 		}
 
-		return gathered;
+		try { transaction.commit (); }
+		catch ( Exception exception ) { throw Exceptions.wrap (exception); }
 	}
 
-	private String extractName (String arg) {
-		int index = arg.indexOf ("=");
-		return index < 0 ? arg.substring (2) : arg.substring (2, index);
-	}
+	private void notifyOption (Option option, String [] names, OptionConsumer.Raw consumer, Map<String, List<String>> gathered) {
+		List<String> values = null;
+		boolean negated = false;
+
+		for ( int i = 0; values == null && i < names.length; i++ ) {
+			values = gathered.get (names[i]);
+			negated = i > 0;
+		}
 
-	private String extractValue (String arg) {
-		int index = arg.indexOf ("=");
-		return index < 0 ? "" : arg.substring (index + 1);
+		if ( values == null ) { return; }
+		if ( ! negated ) {
+			try { consumer.acceptRaw (option, values); }
+			catch ( Exception exception ) { throw Exceptions.wrap (exception); }
+			return;
+		}
+
+		List<Object> parsed = new ArrayList<> (values.size ());
+		for ( String value : values ) { parsed.add (! (Boolean) option.parseValue (value)); }
+		notify (consumer, option, parsed);
 	}
 
-	private String normalize (String name) {
-		return name.replaceAll ("-", " ");
+	private void notify (OptionConsumer consumer, Option option, List values) {
+		try { consumer.accept (option, values); }
+		catch ( Exception exception ) { throw Exceptions.wrap (exception); }
 	}
 
 }
@@ -13,13 +13,18 @@ public class DefaultsOptionSource implements OptionSource {
 
 	@Override
 	public void subscribe (List<Option> options, OptionConsumer consumer) {
+		OptionConsumer.Transaction transaction = OptionConsumer.transaction (consumer);
+
 		for ( Option option : options ) {
 			Object value = option.getDefault ();
 			if ( value == null ) { continue; }
 
-			try { consumer.accept (option, Collections.singletonList (value)); }
+			try { transaction.accept (option, Collections.singletonList (value)); }
 			catch ( Exception e ) { throw Exceptions.wrap (e); }
 		}
+
+		try { transaction.commit (); }
+		catch ( Exception e ) { throw Exceptions.wrap (e); }
 	}
 
 	@Override
@@ -0,0 +1,210 @@
+package org.tutske.lib.options.sources;
+
+import org.tutske.lib.options.Option;
+import org.tutske.lib.options.OptionConsumer;
+import org.tutske.lib.options.OptionSource;
+import org.tutske.lib.options.impl.BaseOptionSource;
+import org.tutske.lib.options.impl.NameIndex;
+import org.tutske.lib.utils.Exceptions;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+
+public class DirectoryOptionSource extends BaseOptionSource implements OptionSource, AutoCloseable {
+
+	private final Path directory;
+	private final Duration debounce;
+	private final Map<String, String> current = new HashMap<> ();
+	private NameIndex<String> files = index (Collections.emptySet ());
+	private WatchService watcher;
+
+	public DirectoryOptionSource (Path directory) {
+		this (directory, Duration.ofMillis (100));
+	}
+
+	public DirectoryOptionSource (Path directory, Duration debounce) {
+		this.directory = directory;
+		this.debounce = debounce;
+	}
+
+	@Override
+	public synchronized void subscribe (List<Option> options, OptionConsumer consumer) {
+		super.subscribe (options, consumer);
+	}
+
+	@Override
+	public synchronized void unsubscribe (List<Option> options, OptionConsumer consumer) {
+		super.unsubscribe (options, consumer);
+	}
+
+	public synchronized void consume () {
+		current.clear ();
+		files = index (Collections.emptySet ());
+		refresh (null);
+	}
+
+	public synchronized void watch () {
+		if ( watcher != null ) { return; }
+
+		try {
+			watcher = directory.getFileSystem ().newWatchService ();
+			directory.register (watcher,
+				StandardWatchEventKinds.ENTRY_CREATE,
+				StandardWatchEventKinds.ENTRY_MODIFY,
+				StandardWatchEventKinds.ENTRY_DELETE
+			);
+		} catch ( IOException e ) {
+			throw Exceptions.wrap (e);
+		}
+
+		WatchService service = watcher;
+		Thread thread = new Thread (() -> run (service), "option-directory-watch");
+		thread.setDaemon (true);
+		thread.start ();
+	}
+
+	@Override
+	public void close () {
+		WatchService service;
+		synchronized ( this ) {
+			service = watcher;
+			watcher = null;
+		}
+
+		if ( service == null ) { return; }
+		try { service.close (); }
+		catch ( IOException e ) { throw Exceptions.wrap (e); }
+	}
+
+	private void run (WatchService service) {
+		try {
+			while ( true ) {
+				Set<String> changed = new HashSet<> ();
+				boolean rescan = collect (service.take (), changed);
+
+				for ( WatchKey key = poll (service); key != null; key = poll (service) ) {
+					rescan |= collect (key, changed);
+				}
+
+				try { refresh (rescan ? null : changed); }
+				catch ( RuntimeException e ) { report (e); }
+			}
+		} catch ( ClosedWatchServiceException | InterruptedException ignore ) {
+		}
+	}
+
+	private WatchKey poll (WatchService service) throws InterruptedException {
+		return service.poll (debounce.toNanos (), TimeUnit.NANOSECONDS);
+	}
+
+	private boolean collect (WatchKey key, Set<String> changed) {
+		boolean rescan = false;
+
+		for ( WatchEvent<?> event : key.pollEvents () ) {
+			if ( event.kind () == StandardWatchEventKinds.OVERFLOW ) { rescan = true; continue; }
+
+			String name = event.context ().toString ();
+			if ( name.startsWith (".") ) { rescan = true; }
+			else { changed.add (name); }
+		}
+
+		if ( ! key.reset () ) { rescan = true; }
+		return rescan;
+	}
+
+	private synchronized void refresh (Collection<String> names) {
+		Set<String> updates = new HashSet<> ();
+		boolean removed = false;
+
+		for ( String name : names == null ? allFiles () : names ) {
+			String content = read (directory.resolve (name));
+			if ( content == null ) { removed |= current.remove (name) != null; }
+			else if ( ! Objects.equals (content, current.put (name, content)) ) { updates.add (name); }
+		}
+
+		if ( updates.isEmpty () && ! removed ) { return; }
+
+		NameIndex<String> previous = files;
+		files = index (current.keySet ());
+
+		for ( Map.Entry<OptionConsumer, List<Option>> entry : listeners.entrySet () ) {
+			OptionConsumer.Transaction transaction = OptionConsumer.transaction (entry.getKey ());
+			OptionConsumer.Raw raw = OptionConsumer.raw (transaction);
+
+			for ( Option option : entry.getValue () ) {
+				String file = files.get (option.getName ());
+				if ( file == null ) { continue; }
+				if ( ! updates.contains (file) && file.equals (previous.get (option.getName ())) ) { continue; }
+
+				try { raw.acceptRaw (option, Collections.singletonList (current.get (file))); }
+				catch ( Exception e ) { throw Exceptions.wrap (e); }
+			}
+
+			try { transaction.commit (); }
+			catch ( Exception e ) { throw Exceptions.wrap (e); }
+		}
+	}
+
+	private static NameIndex<String> index (Collection<String> names) {
+		NameIndex<String> index = new NameIndex<> (PropertiesReader::normalize);
+
+		for ( String name : names ) {
+			String existing = index.get (name);
+			if ( existing == null || preferred (name, existing) ) { index.put (name, name); }
+		}
+
+		return index;
+	}
+
+	private static boolean preferred (String name, String existing) {
+		int rank = PropertiesReader.rank (name) - PropertiesReader.rank (existing);
+		return rank < 0 || (rank == 0 && name.compareTo (existing) < 0);
+	}
+
+	private Collection<String> allFiles () {
+		Set<String> names = new HashSet<> (current.keySet ());
+		if ( ! Files.isDirectory (directory) ) { return names; }
+
+		try ( Stream<Path> files = Files.list (directory) ) {
+			files.map (file -> file.getFileName ().toString ())
+				.filter (name -> ! name.startsWith ("."))
+				.forEach (names::add);
+		} catch ( IOException e ) {
+			throw Exceptions.wrap (e);
+		}
+
+		return names;
+	}
+
+	private String read (Path file) {
+		if ( ! Files.isRegularFile (file) ) { return null; }
+
+		String content;
+		try { content = new String (Files.readAllBytes (file), StandardCharsets.UTF_8); }
+		catch ( IOException e ) { return null; }
+
+		int end = content.length ();
+		while ( end > 0 && (content.charAt (end - 1) == '\n' || content.charAt (end - 1) == '\r') ) { end--; }
+		return content.substring (0, end);
+	}
+
+}
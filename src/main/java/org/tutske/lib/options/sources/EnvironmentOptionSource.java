@@ -6,39 +6,88 @@ import org.tutske.lib.options.OptionSource;
 import org.tutske.lib.options.impl.BaseOptionSource;
 import org.tutske.lib.utils.Exceptions;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 
 public class EnvironmentOptionSource extends BaseOptionSource implements OptionSource {
 
-	private final String leading;
+	private static final class Lookup {
+		private final Option [] options;
+		private final String [] keys;
+		private final Map<String, List<Option>> byKey;
+
+		private Lookup (List<Option> options, String prefix, String sep) {
+			this.options = options.toArray (new Option [options.size ()]);
+			this.keys = new String [this.options.length];
+			this.byKey = new HashMap<> (this.options.length * 2);
+
+			for ( int i = 0; i < this.options.length; i++ ) {
+				keys[i] = prefix + this.options[i].getName ().toUpperCase ().replace (" ", sep);
+				byKey.computeIfAbsent (keys[i], key -> new ArrayList<> (1)).add (this.options[i]);
+			}
+		}
+	}
+
+	private final Map<OptionConsumer, Lookup> lookups = new LinkedHashMap<> ();
+	private final String prefix;
 	private final String sep;
 
 	public EnvironmentOptionSource (String leading, String sep) {
-		this.leading = leading;
+		this.prefix = leading + sep;
 		this.sep = sep;
 	}
 
+	@Override
+	public void subscribe (List<Option> options, OptionConsumer consumer) {
+		super.subscribe (options, consumer);
+		lookups.put (consumer, new Lookup (listeners.get (consumer), prefix, sep));
+	}
+
+	@Override
+	public void unsubscribe (List<Option> options, OptionConsumer consumer) {
+		super.unsubscribe (options, consumer);
+		if ( listeners.containsKey (consumer) ) { lookups.put (consumer, new Lookup (listeners.get (consumer), prefix, sep)); }
+		else { lookups.remove (consumer); }
+	}
+
 	public void consume (Map<String, String> environment) {
-		for ( Map.Entry<OptionConsumer, List<Option>> entry : listeners.entrySet () ) {
-			for ( Option option : entry.getValue () ) {
-				String value = environment.get (canonicalName (option));
-				if ( value == null ) { continue; }
+		for ( Map.Entry<OptionConsumer, Lookup> entry : lookups.entrySet () ) {
+			OptionConsumer.Transaction transaction = OptionConsumer.transaction (entry.getKey ());
+			OptionConsumer.Raw raw = OptionConsumer.raw (transaction);
+			Lookup lookup = entry.getValue ();
 
-				try { entry.getKey ().accept (option, values (option, value)); }
-				catch ( Exception e ) { throw Exceptions.wrap (e); }
-			}
+			if ( lookup.options.length > environment.size () ) { consumeByEnvironment (lookup, raw, environment); }
+			else { consumeByOptions (lookup, raw, environment); }
+
+			try { transaction.commit (); }
+			catch ( Exception e ) { throw Exceptions.wrap (e); }
+		}
+	}
+
+	private void consumeByOptions (Lookup lookup, OptionConsumer.Raw consumer, Map<String, String> environment) {
+		for ( int i = 0; i < lookup.options.length; i++ ) {
+			String value = environment.get (lookup.keys[i]);
+			if ( value != null ) { accept (consumer, lookup.options[i], value); }
 		}
 	}
 
-	private List values (Option option, String value) {
-		return Collections.singletonList (option.parseValue (value));
+	private void consumeByEnvironment (Lookup lookup, OptionConsumer.Raw consumer, Map<String, String> environment) {
+		for ( Map.Entry<String, String> variable : environment.entrySet () ) {
+			if ( variable.getValue () == null || ! variable.getKey ().startsWith (prefix) ) { continue; }
+
+			List<Option> options = lookup.byKey.getOrDefault (variable.getKey (), Collections.emptyList ());
+			for ( Option option : options ) { accept (consumer, option, variable.getValue ()); }
+		}
 	}
 
-	private String canonicalName (Option option) {
-		return leading + sep + option.getName ().toUpperCase ().replaceAll (" ", sep);
+	private void accept (OptionConsumer.Raw consumer, Option option, String value) {
+		try { consumer.acceptRaw (option, Collections.singletonList (value)); }
+		catch ( Exception e ) { throw Exceptions.wrap (e); }
 	}
 
 }
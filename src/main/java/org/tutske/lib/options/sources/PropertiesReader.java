@@ -0,0 +1,249 @@
+package org.tutske.lib.options.sources;
+
+import org.tutske.lib.options.impl.NameIndex;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+
+final class PropertiesReader {
+
+	static final class Value {
+		final String value;
+		private final int rank;
+
+		private Value (String value, int rank) {
+			this.value = value;
+			this.rank = rank;
+		}
+	}
+
+	private static final class ByteChars implements CharSequence {
+		private final ByteBuffer bytes;
+		private int offset;
+		private int length;
+
+		private ByteChars (ByteBuffer bytes, int offset, int length) {
+			this.bytes = bytes;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		private ByteChars range (int offset, int length) {
+			this.offset = offset;
+			this.length = length;
+			return this;
+		}
+
+		@Override public int length () { return length; }
+		@Override public char charAt (int index) { return (char) (bytes.get (offset + index) & 0xff); }
+		@Override public CharSequence subSequence (int start, int end) {
+			return new ByteChars (bytes, offset + start, end - start);
+		}
+		@Override public String toString () {
+			byte [] copy = new byte [length];
+			for ( int i = 0; i < length; i++ ) { copy[i] = bytes.get (offset + i); }
+			return new String (copy, StandardCharsets.ISO_8859_1);
+		}
+	}
+
+	private PropertiesReader () {}
+
+	static NameIndex<Value> index () {
+		return new NameIndex<> (PropertiesReader::normalize);
+	}
+
+	static NameIndex<Value> read (InputStream in) throws IOException {
+		return read (new InputStreamReader (in, StandardCharsets.ISO_8859_1));
+	}
+
+	static NameIndex<Value> read (Reader reader) throws IOException {
+		NameIndex<Value> index = index ();
+		BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader (reader);
+		StringBuilder logical = new StringBuilder ();
+
+		for ( String line = lines.readLine (); line != null; line = lines.readLine () ) {
+			int start = skipWhitespace (line, 0);
+			if ( logical.length () == 0 && (start == line.length () || isComment (line.charAt (start))) ) { continue; }
+
+			if ( continues (line) ) {
+				logical.append (line, start, line.length () - 1);
+				continue;
+			}
+
+			logical.append (line, start, line.length ());
+			add (index, logical, null);
+			logical.setLength (0);
+		}
+
+		if ( logical.length () > 0 ) { add (index, logical, null); }
+		return index;
+	}
+
+	static NameIndex<Value> map (Path path, Collection<String> names) throws IOException {
+		NameIndex<String> wanted = new NameIndex<> (PropertiesReader::normalize);
+		for ( String name : names ) { wanted.put (name, name); }
+
+		try ( FileChannel channel = FileChannel.open (path, StandardOpenOption.READ) ) {
+			if ( channel.size () > Integer.MAX_VALUE ) {
+				try ( InputStream in = Channels.newInputStream (channel) ) { return read (in); }
+			}
+			return scan (channel.map (FileChannel.MapMode.READ_ONLY, 0, channel.size ()), wanted);
+		}
+	}
+
+	private static NameIndex<Value> scan (ByteBuffer bytes, NameIndex<String> wanted) {
+		NameIndex<Value> index = index ();
+		ByteChars line = new ByteChars (bytes, 0, 0);
+		StringBuilder logical = new StringBuilder ();
+		int size = bytes.limit ();
+
+		for ( int position = 0; position < size; ) {
+			int begin = position;
+			int end = position;
+			while ( end < size && bytes.get (end) != '\n' && bytes.get (end) != '\r' ) { end++; }
+
+			position = end;
+			if ( position < size && bytes.get (position) == '\r' ) { position++; }
+			if ( position < size && bytes.get (position) == '\n' ) { position++; }
+
+			line.range (begin, end - begin);
+			int start = skipWhitespace (line, 0);
+			if ( logical.length () == 0 && (start == line.length () || isComment (line.charAt (start))) ) { continue; }
+
+			if ( continues (line) ) {
+				logical.append (line, start, line.length () - 1);
+			} else if ( logical.length () == 0 ) {
+				add (index, line.range (begin + start, end - begin - start), wanted);
+			} else {
+				logical.append (line, start, line.length ());
+				add (index, logical, wanted);
+				logical.setLength (0);
+			}
+		}
+
+		if ( logical.length () > 0 ) { add (index, logical, wanted); }
+		return index;
+	}
+
+	private static void add (NameIndex<Value> index, CharSequence line, NameIndex<String> wanted) {
+		int end = 0;
+		while ( end < line.length () && ! isSeparator (line.charAt (end)) ) {
+			end += line.charAt (end) == '\\' ? 2 : 1;
+		}
+		end = Math.min (end, line.length ());
+
+		int start = skipWhitespace (line, end);
+		if ( start < line.length () && (line.charAt (start) == '=' || line.charAt (start) == ':') ) {
+			start = skipWhitespace (line, start + 1);
+		}
+
+		if ( wanted != null && ! escaped (line, 0, end) && wanted.get (line, 0, end) == null ) { return; }
+
+		String key = unescape (line, 0, end);
+		if ( wanted != null && wanted.get (key) == null ) { return; }
+
+		String value = unescape (line, start, line.length ());
+		Value candidate = new Value (value, rank (key));
+
+		Value existing = index.get (key);
+		if ( existing == null || candidate.rank <= existing.rank ) { index.put (key, candidate); }
+	}
+
+	static int rank (String key) {
+		boolean upper = key.equals (key.toUpperCase ());
+		char separator = 0;
+
+		for ( int i = 0; i < key.length (); i++ ) {
+			char c = key.charAt (i);
+			if ( c != '_' && c != '-' && c != '.' && c != ' ' ) { continue; }
+			if ( separator != 0 && separator != c ) { return 5; }
+			separator = c;
+		}
+
+		switch ( separator ) {
+			case '_': return upper ? 0 : 1;
+			case '-': return 2;
+			case '.': return 3;
+			case 0: return upper ? 0 : 1;
+			default: return 4;
+		}
+	}
+
+	private static String unescape (CharSequence chars, int start, int end) {
+		StringBuilder result = null;
+
+		for ( int i = start; i < end; i++ ) {
+			char c = chars.charAt (i);
+			if ( c != '\\' ) {
+				if ( result != null ) { result.append (c); }
+				continue;
+			}
+
+			if ( result == null ) { result = new StringBuilder (end - start).append (chars, start, i); }
+			if ( ++i >= end ) { break; }
+
+			c = chars.charAt (i);
+			switch ( c ) {
+				case 't': result.append ('\t'); break;
+				case 'n': result.append ('\n'); break;
+				case 'r': result.append ('\r'); break;
+				case 'f': result.append ('\f'); break;
+				case 'u':
+					if ( i + 4 >= end ) { throw new IllegalArgumentException ("Malformed \\uxxxx encoding."); }
+					result.append ((char) Integer.parseInt (chars.subSequence (i + 1, i + 5).toString (), 16));
+					i += 4;
+					break;
+				default: result.append (c);
+			}
+		}
+
+		return result == null ? chars.subSequence (start, end).toString () : result.toString ();
+	}
+
+	private static boolean escaped (CharSequence chars, int start, int end) {
+		for ( int i = start; i < end; i++ ) {
+			if ( chars.charAt (i) == '\\' ) { return true; }
+		}
+		return false;
+	}
+
+	private static boolean continues (CharSequence line) {
+		int slashes = 0;
+		for ( int i = line.length () - 1; i >= 0 && line.charAt (i) == '\\'; i-- ) { slashes++; }
+		return slashes % 2 == 1;
+	}
+
+	private static int skipWhitespace (CharSequence chars, int start) {
+		while ( start < chars.length () && isWhitespace (chars.charAt (start)) ) { start++; }
+		return start;
+	}
+
+	private static boolean isComment (char c) {
+		return c == '#' || c == '!';
+	}
+
+	private static boolean isSeparator (char c) {
+		return c == '=' || c == ':' || isWhitespace (c);
+	}
+
+	private static boolean isWhitespace (char c) {
+		return c == ' ' || c == '\t' || c == '\f';
+	}
+
+	static int normalize (int c) {
+		if ( c == '_' || c == '-' || c == '.' ) { return ' '; }
+		return Character.toLowerCase (c);
+	}
+
+}
@@ -2,23 +2,43 @@ package org.tutske.lib.options.sources;
 
 import org.tutske.lib.options.Option;
 import org.tutske.lib.options.OptionConsumer;
+import org.tutske.lib.options.OptionException;
 import org.tutske.lib.options.OptionSource;
 import org.tutske.lib.options.impl.BaseOptionSource;
+import org.tutske.lib.options.impl.NameIndex;
 import org.tutske.lib.utils.Exceptions;
 import org.tutske.lib.utils.Resource;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 
-public class PropertyFileOptionSource extends BaseOptionSource implements OptionSource {
+public class PropertyFileOptionSource extends BaseOptionSource implements OptionSource, AutoCloseable {
+
+	private static final long MAP_THRESHOLD = 1 << 20;
+
+	private Path watched;
+	private FileTime modified;
+	private long size;
+	private byte [] digest;
+	private NameIndex<PropertiesReader.Value> last;
+	private ScheduledExecutorService poller;
 
 	public void consume (String filename) {
 		if ( ! filename.contains ("://")) {
@@ -36,40 +56,126 @@ public class PropertyFileOptionSource extends BaseOptionSource implements Option
 
 	public void consume (Path path) {
 		if ( ! Files.exists (path) ) { return; }
-		try ( InputStream in = Files.newInputStream (path) ) { consume (in); }
-		catch ( Exception e ) { throw Exceptions.wrap (e); }
+
+		try {
+			if ( Files.size (path) >= MAP_THRESHOLD ) { push (PropertiesReader.map (path, names ()), null); }
+			else { try ( InputStream in = Files.newInputStream (path) ) { consume (in); } }
+		} catch ( Exception e ) {
+			throw Exceptions.wrap (e);
+		}
 	}
 
 	public void consume (InputStream in) {
 		if ( in == null ) { return; }
 
-		Properties properties = new Properties ();
+		NameIndex<PropertiesReader.Value> properties;
 
-		try { properties.load (in); }
+		try { properties = PropertiesReader.read (in); }
 		catch ( Exception e ) { throw Exceptions.wrap (e); }
 
+		push (properties, null);
+	}
+
+	public synchronized boolean reload (Path path) {
+		if ( ! Files.exists (path) ) { return false; }
+
+		try {
+			boolean known = path.equals (watched);
+			FileTime modified = Files.getLastModifiedTime (path);
+			long size = Files.size (path);
+			if ( known && modified.equals (this.modified) && size == this.size ) { return false; }
+
+			byte [] content = Files.readAllBytes (path);
+			byte [] digest = MessageDigest.getInstance ("SHA-256").digest (content);
+
+			if ( known && Arrays.equals (digest, this.digest) ) {
+				this.modified = modified;
+				this.size = content.length;
+				return false;
+			}
+
+			NameIndex<PropertiesReader.Value> properties = PropertiesReader.read (new ByteArrayInputStream (content));
+
+			push (properties, known ? last : null);
+
+			this.watched = path;
+			this.modified = modified;
+			this.size = content.length;
+			this.digest = digest;
+			this.last = properties;
+			return true;
+		} catch ( Exception e ) {
+			throw Exceptions.wrap (e);
+		}
+	}
+
+	public synchronized void watch (Path path, Duration interval) {
+		if ( poller != null ) { throw new OptionException ("Already watching " + watched); }
+
+		reload (path);
+		poller = Executors.newSingleThreadScheduledExecutor (runnable -> {
+			Thread thread = new Thread (runnable, "option-properties-watch");
+			thread.setDaemon (true);
+			return thread;
+		});
+
+		long nanos = interval.toNanos ();
+		poller.scheduleWithFixedDelay (() -> {
+			try { reload (path); }
+			catch ( RuntimeException e ) { report (e); }
+		}, nanos, nanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public void close () {
+		ScheduledExecutorService poller;
+		synchronized ( this ) {
+			poller = this.poller;
+			this.poller = null;
+		}
+		if ( poller != null ) { poller.shutdownNow (); }
+	}
+
+	@Override
+	public synchronized void subscribe (List<Option> options, OptionConsumer consumer) {
+		super.subscribe (options, consumer);
+	}
+
+	@Override
+	public synchronized void unsubscribe (List<Option> options, OptionConsumer consumer) {
+		super.unsubscribe (options, consumer);
+	}
+
+	private synchronized void push (NameIndex<PropertiesReader.Value> properties, NameIndex<PropertiesReader.Value> previous) {
 		for ( Map.Entry<OptionConsumer, List<Option>> entry : listeners.entrySet () ) {
-			for ( Option option : entry.getValue () ) {
-				String value = properties.getProperty (canonicalName (option));
-				if ( value == null ) { value = properties.getProperty (option.getName ().replace (" ", "_")); }
-				if ( value == null ) { value = properties.getProperty (option.getName ().replace (" ", "-")); }
-				if ( value == null ) { value = properties.getProperty (option.getName ().replace (" ", ".")); }
-				if ( value == null ) { value = properties.getProperty (option.getName ()); }
+			OptionConsumer.Transaction transaction = OptionConsumer.transaction (entry.getKey ());
+			OptionConsumer.Raw raw = OptionConsumer.raw (transaction);
 
+			for ( Option option : entry.getValue () ) {
+				String value = resolve (properties, option);
 				if ( value == null ) { continue; }
+				if ( previous != null && value.equals (resolve (previous, option)) ) { continue; }
 
-				try { entry.getKey ().accept (option, values (option, value)); }
+				try { raw.acceptRaw (option, Collections.singletonList (value)); }
 				catch ( Exception e ) { throw Exceptions.wrap (e); }
 			}
+
+			try { transaction.commit (); }
+			catch ( Exception e ) { throw Exceptions.wrap (e); }
 		}
 	}
 
-	private List values (Option option, String value) {
-		return Collections.singletonList (option.parseValue (value));
+	private synchronized Set<String> names () {
+		Set<String> names = new HashSet<> ();
+		for ( List<Option> options : listeners.values () ) {
+			for ( Option option : options ) { names.add (option.getName ()); }
+		}
+		return names;
 	}
 
-	private String canonicalName (Option<?> option) {
-		return option.getName ().toUpperCase ().replace (" ", "_");
+	private String resolve (NameIndex<PropertiesReader.Value> properties, Option<?> option) {
+		PropertiesReader.Value value = properties.get (option.getName ());
+		return value == null ? null : value.value;
 	}
 
 }
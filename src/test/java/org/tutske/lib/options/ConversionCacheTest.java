@@ -0,0 +1,115 @@
+package org.tutske.lib.options;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import org.junit.Test;
+import org.tutske.lib.options.Option.*;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+
+public class ConversionCacheTest {
+
+	ConversionCache cache = new ConversionCache (2);
+
+	@Test
+	public void it_should_only_convert_the_same_raw_value_once () {
+		AtomicInteger conversions = new AtomicInteger ();
+		Function<String, Integer> converter = value -> {
+			conversions.incrementAndGet ();
+			return Integer.parseInt (value);
+		};
+
+		assertThat (cache.convert (converter, "42", converter), is (42));
+		assertThat (cache.convert (converter, "42", converter), is (42));
+
+		assertThat (conversions.get (), is (1));
+		assertThat (cache.hits (), is (1L));
+		assertThat (cache.misses (), is (1L));
+	}
+
+	@Test
+	public void it_should_share_converted_values_between_options_of_the_same_type () {
+		PathOption first = new PathOption ("first");
+		PathOption second = new PathOption ("second");
+		first.cached (cache);
+		second.cached (cache);
+
+		Path path = first.parseValue ("/tmp/options");
+
+		assertThat (second.parseValue ("/tmp/options"), sameInstance (path));
+		assertThat (cache.hits (), is (1L));
+	}
+
+	@Test
+	public void it_should_not_share_converted_values_between_different_enums () {
+		EnumOption<TimeUnit> unit = new EnumOption<> ("unit", TimeUnit.values ());
+		EnumOption<OptionTest.TestOption> test = new EnumOption<> ("test", OptionTest.TestOption.values ());
+		unit.cached (cache);
+		test.cached (cache);
+
+		assertThat (unit.parseValue ("seconds"), is (TimeUnit.SECONDS));
+		assertThat (test.parseValue ("first"), is (OptionTest.TestOption.First));
+		assertThat (cache.misses (), is (2L));
+	}
+
+	@Test
+	public void it_should_evict_the_least_recently_used_value () {
+		DurationOption option = new DurationOption ("timeout");
+		option.cached (cache);
+
+		Duration first = option.parseValue ("1s");
+		option.parseValue ("2s");
+		option.parseValue ("1s");
+		option.parseValue ("3s");
+
+		assertThat (cache.size (), is (2));
+		assertThat (option.parseValue ("1s"), sameInstance (first));
+		assertThat (cache.hits (), is (2L));
+		assertThat (cache.misses (), is (3L));
+	}
+
+	@Test
+	public void it_should_not_remember_failed_conversions () {
+		IntegerOption option = new IntegerOption ("count");
+		option.cached (cache);
+
+		for ( int i = 0; i < 2; i++ ) {
+			try { option.parseValue ("many"); }
+			catch ( RuntimeException ignore ) {}
+		}
+
+		assertThat (cache.size (), is (0));
+		assertThat (cache.misses (), is (2L));
+	}
+
+	@Test
+	public void it_should_share_arrays_between_conversions_because_they_cannot_change () {
+		IntArrayOption ints = new IntArrayOption ("ports");
+		LongArrayOption longs = new LongArrayOption ("sizes");
+		ints.cached (cache);
+		longs.cached (cache);
+
+		ints.parseValue ("80,443").toArray ()[0] = 8080;
+
+		assertThat (ints.parseValue ("80,443"), is (IntArray.of (80, 443)));
+		assertThat (longs.parseValue ("1,2"), sameInstance (longs.parseValue ("1,2")));
+	}
+
+	@Test (expected = IllegalArgumentException.class)
+	public void it_should_complain_about_a_capacity_that_is_not_positive () {
+		new ConversionCache (0);
+	}
+
+	@Test
+	public void it_should_convert_without_the_cache_by_default () {
+		PathOption option = new PathOption ("path");
+		assertThat (option.parseValue ("/tmp"), not (sameInstance (option.parseValue ("/tmp"))));
+	}
+
+}
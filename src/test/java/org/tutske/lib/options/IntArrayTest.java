@@ -0,0 +1,51 @@
+package org.tutske.lib.options;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import org.junit.Test;
+
+
+public class IntArrayTest {
+
+	@Test
+	public void it_should_know_which_values_it_contains () {
+		IntArray array = IntArray.of (0, -1, 80, 443);
+
+		assertThat (array.contains (0), is (true));
+		assertThat (array.contains (-1), is (true));
+		assertThat (array.contains (443), is (true));
+		assertThat (array.contains (8080), is (false));
+	}
+
+	@Test
+	public void it_should_find_every_value_in_a_large_array () {
+		int [] values = new int [10_000];
+		for ( int i = 0; i < values.length; i++ ) { values[i] = i * 1024; }
+		IntArray array = IntArray.of (values);
+
+		for ( int value : values ) { assertThat (array.contains (value), is (true)); }
+		assertThat (array.contains (1), is (false));
+	}
+
+	@Test
+	public void it_should_keep_the_order_and_duplicates_of_the_values () {
+		IntArray array = IntArray.of (3, 1, 3);
+
+		assertThat (array.length (), is (3));
+		assertThat (array.get (0), is (3));
+		assertThat (array.get (2), is (3));
+	}
+
+	@Test
+	public void it_should_not_be_changed_through_the_arrays_it_was_made_from_or_gave_out () {
+		int [] values = { 80, 443 };
+		IntArray array = IntArray.of (values);
+
+		values[0] = 1;
+		array.toArray ()[1] = 1;
+
+		assertThat (array, is (IntArray.of (80, 443)));
+	}
+
+}
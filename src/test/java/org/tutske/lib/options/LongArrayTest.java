@@ -0,0 +1,51 @@
+package org.tutske.lib.options;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import org.junit.Test;
+
+
+public class LongArrayTest {
+
+	@Test
+	public void it_should_know_which_values_it_contains () {
+		LongArray array = LongArray.of (0, -1, 80, 443);
+
+		assertThat (array.contains (0), is (true));
+		assertThat (array.contains (-1), is (true));
+		assertThat (array.contains (443), is (true));
+		assertThat (array.contains (8080), is (false));
+	}
+
+	@Test
+	public void it_should_find_every_value_in_a_large_array () {
+		long [] values = new long [10_000];
+		for ( int i = 0; i < values.length; i++ ) { values[i] = i * 1024L; }
+		LongArray array = LongArray.of (values);
+
+		for ( long value : values ) { assertThat (array.contains (value), is (true)); }
+		assertThat (array.contains (1L), is (false));
+	}
+
+	@Test
+	public void it_should_keep_the_order_and_duplicates_of_the_values () {
+		LongArray array = LongArray.of (3, 1, 3);
+
+		assertThat (array.length (), is (3));
+		assertThat (array.get (0), is (3L));
+		assertThat (array.get (2), is (3L));
+	}
+
+	@Test
+	public void it_should_not_be_changed_through_the_arrays_it_was_made_from_or_gave_out () {
+		long [] values = { 80, 443 };
+		LongArray array = LongArray.of (values);
+
+		values[0] = 1;
+		array.toArray ()[1] = 1;
+
+		assertThat (array, is (LongArray.of (80, 443)));
+	}
+
+}
@@ -0,0 +1,119 @@
+package org.tutske.lib.options;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import org.junit.Test;
+import org.tutske.lib.options.Option.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class OptionStoreFactoryTest {
+
+	IntegerOption count = new IntegerOption ("count", 0);
+
+	@Test
+	public void it_should_read_the_config_file_named_in_the_arguments () throws Exception {
+		StringOption config = new StringOption ("config");
+		StringOption name = new StringOption ("name");
+		Path file = Files.createTempFile ("service", ".properties");
+		file.toFile ().deleteOnExit ();
+		Files.write (file, Arrays.asList ("NAME = John", "COUNT = 8"));
+
+		OptionStore store = OptionStoreFactory.createServiceOptionStore (
+			new Option [] { config, name, count }, config, "OPTION_STORE_TEST",
+			new String [] { "--config=" + file, "--count=9" }
+		);
+
+		assertThat (store.get (name), is ("John"));
+		assertThat (store.get (count), is (9));
+	}
+
+	@Test
+	public void it_should_parse_every_argument_only_once_when_bootstrapping () throws Exception {
+		AtomicInteger conversions = new AtomicInteger ();
+		Option<Integer> port = countingOption ("port", conversions);
+		StringOption config = new StringOption ("config");
+		Path file = Files.createTempFile ("service", ".properties");
+		file.toFile ().deleteOnExit ();
+
+		OptionStore store = OptionStoreFactory.createServiceOptionStore (
+			new Option [] { config, port }, config, "OPTION_STORE_TEST",
+			new String [] { "--config=" + file, "--port=8080" }
+		);
+
+		assertThat (store.get (port), is (8080));
+		assertThat (conversions.get (), is (1));
+	}
+
+	@Test
+	public void it_should_restore_a_store_from_a_snapshot_when_nothing_changed () throws Exception {
+		AtomicInteger conversions = new AtomicInteger ();
+		Option<Integer> port = countingOption ("port", conversions);
+		Path cache = Files.createTempDirectory ("options").resolve ("options.snapshot");
+		String [] args = { "--port=8080" };
+
+		OptionStore first = OptionStoreFactory.createCachedServiceOptionStore (new Option [] { port }, null, "OPTION_STORE_TEST", args, cache);
+		OptionStore second = OptionStoreFactory.createCachedServiceOptionStore (new Option [] { port }, null, "OPTION_STORE_TEST", args, cache);
+
+		assertThat (Files.exists (cache), is (true));
+		assertThat (first.get (port), is (8080));
+		assertThat (second.get (port), is (8080));
+		assertThat (conversions.get (), is (1));
+	}
+
+	@Test
+	public void it_should_not_use_the_snapshot_when_the_config_file_changed () throws Exception {
+		StringOption config = new StringOption ("config");
+		StringOption name = new StringOption ("name");
+		Path cache = Files.createTempDirectory ("options").resolve ("options.snapshot");
+		Path file = Files.createTempFile ("service", ".properties");
+		file.toFile ().deleteOnExit ();
+		String [] args = { "--config=" + file };
+
+		Files.write (file, Arrays.asList ("NAME = John"));
+		OptionStoreFactory.createCachedServiceOptionStore (new Option [] { config, name }, config, "OPTION_STORE_TEST", args, cache);
+
+		Files.write (file, Arrays.asList ("NAME = Jane"));
+		OptionStore store = OptionStoreFactory.createCachedServiceOptionStore (new Option [] { config, name }, config, "OPTION_STORE_TEST", args, cache);
+
+		assertThat (store.get (name), is ("Jane"));
+	}
+
+	@Test
+	public void it_should_bootstrap_the_config_only_once_when_the_snapshot_is_missing () throws Exception {
+		AtomicInteger plain = new AtomicInteger ();
+		AtomicInteger cached = new AtomicInteger ();
+		Path file = Files.createTempFile ("service", ".properties");
+		file.toFile ().deleteOnExit ();
+		Path cache = Files.createTempDirectory ("options").resolve ("options.snapshot");
+		String [] args = { "--config=" + file };
+
+		Option<String> config = countingConfig (plain);
+		OptionStoreFactory.createServiceOptionStore (new Option [] { config }, config, "OPTION_STORE_TEST", args);
+
+		config = countingConfig (cached);
+		OptionStoreFactory.createCachedServiceOptionStore (new Option [] { config }, config, "OPTION_STORE_TEST", args, cache);
+
+		assertThat (cached.get (), is (plain.get ()));
+	}
+
+	private static Option<Integer> countingOption (String name, AtomicInteger conversions) {
+		return new BaseOption<Integer> (name, null, value -> {
+			conversions.incrementAndGet ();
+			return Integer.parseInt (value);
+		}) {};
+	}
+
+	private static Option<String> countingConfig (AtomicInteger conversions) {
+		return new BaseOption<String> ("config", null, value -> {
+			conversions.incrementAndGet ();
+			return value;
+		}) {};
+	}
+
+}
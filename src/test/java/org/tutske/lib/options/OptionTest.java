@@ -8,6 +8,7 @@ import java.net.URI;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 
@@ -94,6 +95,43 @@ public class OptionTest {
 		new Option.DurationOption ("").parseValue ("2");
 	}
 
+	@Test
+	public void it_should_parse_duration_units_regardless_of_case () {
+		Option<Duration> option = new Option.DurationOption ("");
+		assertThat (option.parseValue ("2Hours 5MS"), is (Duration.ofHours (2).plusMillis (5)));
+	}
+
+	@Test
+	public void it_should_ignore_trailing_spaces_in_durations () {
+		Option<Duration> option = new Option.DurationOption ("");
+		assertThat (option.parseValue ("1m 30s  "), is (Duration.ofSeconds (90)));
+	}
+
+	@Test (expected = ArithmeticException.class)
+	public void it_should_complain_when_a_duration_overflows () {
+		new Option.DurationOption ("").parseValue ("300years");
+	}
+
+	@Test (expected = ArithmeticException.class)
+	public void it_should_complain_when_the_sum_of_durations_overflows () {
+		new Option.DurationOption ("").parseValue ("200years 200years");
+	}
+
+	@Test (expected = Exception.class)
+	public void it_should_complain_about_unknown_duration_units () {
+		new Option.DurationOption ("").parseValue ("2fortnights");
+	}
+
+	@Test (expected = Exception.class)
+	public void it_should_complain_about_empty_duration_parts () {
+		new Option.DurationOption ("").parseValue ("2s  3s");
+	}
+
+	@Test (expected = Exception.class)
+	public void it_should_complain_about_empty_colon_duration_parts () {
+		new Option.DurationOption ("").parseValue ("2::00");
+	}
+
 	@Test
 	public void it_should_parse_positive_boolean_values () {
 		Option<Boolean> option = new Option.BooleanOption ("");
@@ -174,11 +212,84 @@ public class OptionTest {
 		new Option.EnumOption<> ("test", TestOption.values ()).parseValue ("DOES_NOT_EXIST");
 	}
 
+	@Test
+	public void it_should_parse_enum_options_regardless_of_case () {
+		Option<TestOption> option = new Option.EnumOption<> ("test", TestOption.values ());
+		assertThat (option.parseValue ("sECOND"), is (TestOption.Second));
+		assertThat (option.parseValue ("third"), is (TestOption.Third));
+	}
+
+	@Test
+	public void it_should_mention_the_possible_values_when_not_representing_a_value_of_the_enum () {
+		try {
+			new Option.EnumOption<> ("test", TestOption.values ()).parseValue ("Fourth");
+			throw new AssertionError ("Expected the value to be rejected");
+		} catch ( RuntimeException e ) {
+			assertThat (e.getMessage (), is (
+				"`fourth` is not an acceptable value for option 'test', possible values are [First, Second, Third]"
+			));
+		}
+	}
+
 	@Test (expected = Exception.class)
 	public void it_should_complain_when_parsing_nulls () {
 		new Option.EnumOption<> ("test", TestOption.values ()).parseValue (null);
 	}
 
+	@Test
+	public void it_should_parse_int_arrays () {
+		Option<IntArray> option = new Option.IntArrayOption ("ports");
+		assertThat (option.parseValue ("80,443, 8080"), is (IntArray.of (80, 443, 8080)));
+	}
+
+	@Test
+	public void it_should_parse_empty_int_arrays () {
+		Option<IntArray> option = new Option.IntArrayOption ("ports");
+		assertThat (option.parseValue ("").length (), is (0));
+	}
+
+	@Test (expected = Exception.class)
+	public void it_should_complain_about_empty_entries_in_int_arrays () {
+		new Option.IntArrayOption ("ports").parseValue ("80,,443");
+	}
+
+	@Test
+	public void it_should_parse_long_arrays () {
+		Option<LongArray> option = new Option.LongArrayOption ("ids");
+		assertThat (option.parseValue ("1, 9000000000"), is (LongArray.of (1, 9000000000L)));
+	}
+
+	@Test
+	public void it_should_parse_string_sets () {
+		Option<Set<String>> option = new Option.StringSetOption ("hosts");
+		Set<String> hosts = option.parseValue (" a.example.com ,b.example.com,a.example.com");
+
+		assertThat (hosts, containsInAnyOrder ("a.example.com", "b.example.com"));
+		assertThat (hosts.contains ("b.example.com"), is (true));
+		assertThat (hosts.contains ("c.example.com"), is (false));
+	}
+
+	@Test (expected = UnsupportedOperationException.class)
+	public void it_should_not_allow_changes_to_parsed_string_sets () {
+		new Option.StringSetOption ("hosts").parseValue ("a,b").add ("c");
+	}
+
+	@Test
+	public void it_should_consider_equal_arrays_equivalent () {
+		Option<IntArray> option = new Option.IntArrayOption ("ports");
+		assertThat (option.isEquivalent (IntArray.of (80, 443), option.parseValue ("80,443")), is (true));
+	}
+
+	@Test
+	public void it_should_not_let_changes_to_the_fallback_array_leak_into_the_default () {
+		int [] fallback = { 80, 443 };
+		Option<IntArray> option = new Option.IntArrayOption ("ports", fallback);
+		fallback[0] = 8080;
+
+		assertThat (option.getDefault (), is (IntArray.of (80, 443)));
+		assertThat (option.getDefault ().toArray (), not (sameInstance (option.getDefault ().toArray ())));
+	}
+
 	public static enum TestOption {
 		First, Second, Third;
 	}
@@ -30,6 +30,16 @@ public class SimpleOptionSource implements OptionSource {
 		}
 	}
 
+	public void transaction (RiskyConsumer<OptionConsumer> populator) {
+		Consumer<OptionConsumer> fn = populator;
+		for ( OptionConsumer consumer : consumers ) {
+			OptionConsumer.Transaction transaction = OptionConsumer.transaction (consumer);
+			fn.accept (transaction);
+			try { transaction.commit (); }
+			catch ( Exception e ) { throw Exceptions.wrap (e); }
+		}
+	}
+
 	@Override public void subscribe (List<Option> options, OptionConsumer consumer) {
 		this.consumers.add (consumer);
 		populator.accept (consumer);
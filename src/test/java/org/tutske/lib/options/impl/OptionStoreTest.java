@@ -6,13 +6,25 @@ import static org.mockito.Mockito.*;
 
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.tutske.lib.options.IntArray;
+import org.tutske.lib.options.DynamicOption;
+import org.tutske.lib.options.MissingValueException;
 import org.tutske.lib.options.Option;
+import org.tutske.lib.options.OptionConsumer;
+import org.tutske.lib.options.OptionHandle;
+import org.tutske.lib.options.OptionSnapshot;
+import org.tutske.lib.options.OptionSource;
 import org.tutske.lib.options.Option.*;
 import org.tutske.lib.options.OptionStore;
 import org.tutske.lib.options.OptionStoreFactory;
 import org.tutske.lib.options.SimpleOptionSource;
 import org.tutske.lib.options.StoreChangeConsumer;
+import org.tutske.lib.options.UnknownOptionException;
+import org.tutske.lib.options.sources.ArgumentOptionSource;
+import org.tutske.lib.options.sources.DefaultsOptionSource;
+import org.tutske.lib.options.sources.EnvironmentOptionSource;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -24,6 +36,8 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 
 public class OptionStoreTest {
@@ -136,6 +150,33 @@ public class OptionStoreTest {
 		assertThat (store.options (), not (hasItems (count)));
 	}
 
+	@Test
+	public void it_should_not_know_options_created_in_between_its_own_options () {
+		StringOption first = new StringOption ("first");
+		StringOption between = new StringOption ("between");
+		StringOption last = new StringOption ("last");
+		OptionStore store = OptionStoreFactory.createNew (first, last);
+
+		assertThat (store.knows (first), is (true));
+		assertThat (store.knows (last), is (true));
+		assertThat (store.knows (between), is (false));
+		assertThat (store.knows (count), is (false));
+	}
+
+	@Test
+	public void it_should_only_make_room_for_its_own_options () {
+		StringOption first = new StringOption ("first");
+		for ( int i = 0; i < 10_000; i++ ) { new StringOption ("unrelated " + i); }
+		StringOption last = new StringOption ("last");
+
+		OptionLayout layout = new OptionLayout (Arrays.asList (first, last));
+
+		assertThat (layout.size (), is (2));
+		assertThat (layout.slot (first), is (0));
+		assertThat (layout.slot (last), is (1));
+		assertThat (layout.option (1), sameInstance (last));
+	}
+
 	@Test
 	public void it_should_provide_dynamic_value_of_an_options () {
 		OptionStore store = OptionStoreFactory.createNew (options, new SimpleOptionSource (
@@ -160,6 +201,120 @@ public class OptionStoreTest {
 		verify (consumer, timeout (1000)).onValue (store, count, 9);
 	}
 
+	@Test
+	public void it_should_get_primitive_values () {
+		LongOption limit = new LongOption ("limit", 1L << 40);
+		DoubleOption ratio = new DoubleOption ("ratio", 0.75);
+		BooleanOption enabled = new BooleanOption ("enabled", true);
+
+		OptionStore store = OptionStoreFactory.createNew (
+			new Option [] { count, limit, ratio, enabled },
+			new DefaultsOptionSource (),
+			new SimpleOptionSource (consumer -> consumer.accept (count, Arrays.asList (9, 8)))
+		);
+
+		assertThat (store.getInt (count), is (9));
+		assertThat (store.getLong (limit), is (1L << 40));
+		assertThat (store.getDouble (ratio), is (0.75));
+		assertThat (store.getBoolean (enabled), is (true));
+	}
+
+	@Test (expected = MissingValueException.class)
+	public void it_should_complain_when_getting_a_primitive_value_that_is_not_set () {
+		OptionStore store = OptionStoreFactory.createNew (options);
+		store.getInt (count);
+	}
+
+	@Test (expected = UnknownOptionException.class)
+	public void it_should_complain_when_getting_the_primitive_value_of_an_unknown_option () {
+		OptionStore store = OptionStoreFactory.createNew (options);
+		store.getInt (new IntegerOption ("unknown"));
+	}
+
+	@Test
+	public void it_should_provide_handles_with_the_current_value () {
+		OptionStore store = OptionStoreFactory.createNew (options, new SimpleOptionSource (
+			consumer -> consumer.accept (count, Arrays.asList (9, 8))
+		));
+
+		OptionHandle<Integer> handle = store.handle (count);
+
+		assertThat (handle.has (), is (true));
+		assertThat (handle.get (), is (9));
+		assertThat (handle.getAll (), contains (9, 8));
+	}
+
+	@Test
+	public void it_should_update_handles_as_soon_as_values_are_assigned () {
+		SimpleOptionSource source = new SimpleOptionSource (consumer -> {});
+		OptionStore store = OptionStoreFactory.createNew (options, source);
+
+		OptionHandle<Integer> handle = store.handle (count);
+		assertThat (handle.has (), is (false));
+		assertThat (handle.get (), nullValue ());
+
+		source.source (count, 9);
+		assertThat (handle.get (), is (9));
+
+		source.source (count, 7);
+		assertThat (handle.get (), is (7));
+	}
+
+	@Test
+	public void it_should_give_the_same_handle_for_the_same_option () {
+		OptionStore store = OptionStoreFactory.createNew (options);
+		assertThat (store.handle (count), sameInstance (store.handle (count)));
+	}
+
+	@Test (expected = UnknownOptionException.class)
+	public void it_should_complain_when_asking_a_handle_for_an_unknown_option () {
+		OptionStore store = OptionStoreFactory.createNew (options);
+		store.handle (new StringOption ("unknown"));
+	}
+
+	@Test
+	public void it_should_keep_the_values_of_a_snapshot_when_new_values_are_assigned () {
+		SimpleOptionSource source = new SimpleOptionSource (consumer -> consumer.accept (count, Arrays.asList (9)));
+		OptionStore store = OptionStoreFactory.createNew (options, source);
+
+		OptionSnapshot snapshot = store.snapshot ();
+		source.source (count, 7);
+
+		assertThat (snapshot.get (count), is (9));
+		assertThat (store.snapshot ().get (count), is (7));
+	}
+
+	@Test
+	public void it_should_increase_the_generation_of_snapshots_with_every_commit () {
+		StringOption name = new StringOption ("name");
+		SimpleOptionSource source = new SimpleOptionSource (consumer -> {});
+		OptionStore store = OptionStoreFactory.createNew (new Option [] { count, name }, source);
+
+		long initial = store.snapshot ().generation ();
+		source.source (count, 9);
+		long single = store.snapshot ().generation ();
+		source.transaction (transaction -> {
+			transaction.accept (count, Arrays.asList (7));
+			transaction.accept (name, Arrays.asList ("John"));
+		});
+		long batched = store.snapshot ().generation ();
+
+		assertThat (single, greaterThan (initial));
+		assertThat (batched, is (single + 1));
+	}
+
+	@Test
+	public void it_should_give_the_same_snapshot_when_nothing_changed () {
+		OptionStore store = OptionStoreFactory.createNew (options);
+		assertThat (store.snapshot (), sameInstance (store.snapshot ()));
+	}
+
+	@Test (expected = UnknownOptionException.class)
+	public void it_should_complain_when_getting_an_unknown_option_from_a_snapshot () {
+		OptionStore store = OptionStoreFactory.createNew (options);
+		store.snapshot ().get (new StringOption ("unknown"));
+	}
+
 	@Test (expected = RuntimeException.class)
 	public void it_should_complain_when_getting_the_value_of_an_unknown_option () {
 		OptionStore store = OptionStoreFactory.createNew (options);
@@ -228,16 +383,393 @@ public class OptionStoreTest {
 	}
 
 	@Test
-	public void it_should_submit_tasks_to_an_executor_service () {
+	public void it_should_execute_tasks_on_an_executor_service () {
+		SimpleOptionSource source = new SimpleOptionSource (consumer -> {});
+		ExecutorService executor = spy (new DirectExecutorService ());
+
+		OptionStore store = new ReplacingOptionStore (executor, options);
+		store.bind (source);
+		store.onValue (count, amount -> {});
+		source.source (count, 9);
+
+		verify (executor, timeout (1000)).execute (any ());
+	}
+
+	@Test
+	public void it_should_never_show_a_missing_value_while_values_are_being_replaced () throws Exception {
+		SimpleOptionSource source = new SimpleOptionSource (consumer -> consumer.accept (count, Arrays.asList (0)));
+		OptionStore store = OptionStoreFactory.createNew (options, source);
+
+		Thread writer = new Thread (() -> {
+			for ( int i = 1; i <= 10000; i++ ) { source.source (count, i); }
+		});
+
+		writer.start ();
+		while ( writer.isAlive () ) {
+			assertThat (store.get (count), notNullValue ());
+			assertThat (store.getAll (count), hasSize (1));
+		}
+		writer.join ();
+
+		assertThat (store.get (count), is (10000));
+	}
+
+	@Test
+	public void it_should_only_show_values_of_a_transaction_once_committed () throws Exception {
+		StringOption name = new StringOption ("name");
+		SimpleOptionSource source = new SimpleOptionSource (consumer -> {
+			assertThat (consumer, instanceOf (OptionConsumer.Transactional.class));
+		});
+		OptionStore store = OptionStoreFactory.createNew (new Option [] { count, name }, source);
+
+		source.transaction (transaction -> {
+			transaction.accept (count, Arrays.asList (9));
+			transaction.accept (name, Arrays.asList ("John"));
+			assertThat (store.has (count), is (false));
+			assertThat (store.has (name), is (false));
+		});
+
+		assertThat (store.get (count), is (9));
+		assertThat (store.get (name), is ("John"));
+	}
+
+	@Test
+	public void it_should_report_failures_of_the_first_notification_to_a_new_listener () {
+		SimpleOptionSource source = new SimpleOptionSource (consumer -> {});
+		OptionStore store = new ReplacingOptionStore (new DirectExecutorService (), options);
+		store.bind (source);
+		source.source (count, 9);
+
+		List<Throwable> reported = new ArrayList<> ();
+		Thread thread = Thread.currentThread ();
+		Thread.UncaughtExceptionHandler original = thread.getUncaughtExceptionHandler ();
+		thread.setUncaughtExceptionHandler ((t, e) -> reported.add (e));
+		try {
+			store.onChange (count, (s, option, value) -> { throw new IllegalStateException ("crash"); });
+			store.onChanges (count, (s, option, values) -> { throw new IllegalStateException ("crash"); });
+		} finally {
+			thread.setUncaughtExceptionHandler (original);
+		}
+
+		assertThat (reported, hasSize (2));
+	}
+
+	@Test
+	public void it_should_report_listener_failures_after_notifying_the_other_listeners () throws Exception {
+		SimpleOptionSource source = new SimpleOptionSource (consumer -> {});
+		OptionStore store = new ReplacingOptionStore (new DirectExecutorService (), options);
+		store.bind (source);
+
+		StoreChangeConsumer.Value<Integer> first = mock (StoreChangeConsumer.Value.class);
+		StoreChangeConsumer.Value<Integer> second = mock (StoreChangeConsumer.Value.class);
+		doThrow (new RuntimeException ("crash first")).when (first).onValue (any ());
+		doThrow (new RuntimeException ("crash second")).when (second).onValue (any ());
+		store.onValue (count, first);
+		store.onValue (count, second);
+
+		List<Throwable> reported = new ArrayList<> ();
+		Thread thread = Thread.currentThread ();
+		Thread.UncaughtExceptionHandler original = thread.getUncaughtExceptionHandler ();
+		thread.setUncaughtExceptionHandler ((t, e) -> reported.add (e));
+		try { source.source (count, 9); }
+		finally { thread.setUncaughtExceptionHandler (original); }
+
+		verify (first).onValue (9);
+		verify (second).onValue (9);
+		assertThat (reported, hasSize (1));
+		assertThat (reported.get (0).getSuppressed (), arrayWithSize (1));
+	}
+
+	@Test
+	public void it_should_notify_listeners_of_a_transaction_in_a_single_task () throws Exception {
+		StringOption name = new StringOption ("name");
+		SimpleOptionSource source = new SimpleOptionSource (consumer -> {});
+		ExecutorService executor = spy (new DirectExecutorService ());
+
+		OptionStore store = new ReplacingOptionStore (executor, count, name);
+		store.bind (source);
+
+		StoreChangeConsumer.Value<Integer> first = mock (StoreChangeConsumer.Value.class);
+		StoreChangeConsumer.Value<String> second = mock (StoreChangeConsumer.Value.class);
+		store.onValue (count, first);
+		store.onValue (name, second);
+
+		source.transaction (transaction -> {
+			transaction.accept (count, Arrays.asList (9));
+			transaction.accept (name, Arrays.asList ("John"));
+		});
+
+		verify (executor, times (1)).execute (any ());
+		verify (first).onValue (9);
+		verify (second).onValue ("John");
+	}
+
+	@Test
+	public void it_should_not_create_an_executor_until_a_listener_registers () {
+		SimpleOptionSource source = new SimpleOptionSource (consumer -> {});
+		Supplier<ExecutorService> factory = mock (Supplier.class);
+		when (factory.get ()).thenReturn (new DirectExecutorService ());
+
+		OptionStore store = new ReplacingOptionStore (factory, options);
+		store.bind (source);
+		source.source (count, 9);
+
+		verify (factory, never ()).get ();
+
+		store.onValue (count, amount -> {});
+		source.source (count, 8);
+
+		verify (factory, times (1)).get ();
+	}
+
+	@Test
+	public void it_should_shut_down_the_executor_it_created_when_closed () {
+		ExecutorService executor = spy (new DirectExecutorService ());
+
+		OptionStore store = new ReplacingOptionStore (() -> executor, options);
+		store.bind (new SimpleOptionSource (consumer -> consumer.accept (count, Arrays.asList (9))));
+		store.onValue (count, amount -> {});
+		store.close ();
+
+		verify (executor).shutdown ();
+	}
+
+	@Test
+	public void it_should_not_shut_down_an_executor_it_was_given_when_closed () {
+		ExecutorService executor = spy (new DirectExecutorService ());
+
+		OptionStore store = new ReplacingOptionStore (executor, options);
+		store.onValue (count, amount -> {});
+		store.close ();
+
+		verify (executor, never ()).shutdown ();
+	}
+
+	@Test
+	public void it_should_stop_notifying_listeners_once_closed () {
 		SimpleOptionSource source = new SimpleOptionSource (consumer -> {});
 		ExecutorService executor = spy (new DirectExecutorService ());
 
 		OptionStore store = new ReplacingOptionStore (executor, options);
 		store.bind (source);
 		store.onValue (count, amount -> {});
+		store.close ();
+		source.source (count, 9);
+
+		verify (executor, never ()).execute (any ());
+		assertThat (store.get (count), is (9));
+	}
+
+	@Test
+	public void it_should_not_notify_listeners_when_an_equal_value_is_assigned () {
+		SimpleOptionSource source = new SimpleOptionSource (consumer -> {});
+		ReplacingOptionStore store = new ReplacingOptionStore (new DirectExecutorService (), options);
+		store.bind (source);
+
+		StoreChangeConsumer.Value<Integer> consumer = mock (StoreChangeConsumer.Value.class);
+		store.onValue (count, consumer);
+
+		source.source (count, 9);
+		long generation = store.snapshot ().generation ();
+		source.source (count, 9);
+
+		verify (consumer, times (1)).onValue (9);
+		assertThat (store.snapshot ().generation (), is (generation));
+		assertThat (store.suppressedNotifications (), is (1L));
+	}
+
+	@Test
+	public void it_should_notify_listeners_when_the_number_of_values_changes () {
+		SimpleOptionSource source = new SimpleOptionSource (consumer -> {});
+		ReplacingOptionStore store = new ReplacingOptionStore (new DirectExecutorService (), options);
+		store.bind (source);
+
+		StoreChangeConsumer.ValueList<Integer> consumer = mock (StoreChangeConsumer.ValueList.class);
+		store.onValues (count, consumer);
+
+		source.source (count, 9);
+		source.source (count, 9, 8);
+
+		verify (consumer, times (2)).onValues (any ());
+		assertThat (store.suppressedNotifications (), is (0L));
+	}
+
+	@Test
+	public void it_should_use_the_equivalence_of_the_option () {
+		StringOption name = new StringOption ("name") {
+			@Override public boolean isEquivalent (String first, String second) {
+				return first.equalsIgnoreCase (second);
+			}
+		};
+
+		SimpleOptionSource source = new SimpleOptionSource (consumer -> {});
+		ReplacingOptionStore store = new ReplacingOptionStore (new DirectExecutorService (), name);
+		store.bind (source);
+
+		StoreChangeConsumer.Value<String> consumer = mock (StoreChangeConsumer.Value.class);
+		store.onValue (name, consumer);
+
+		source.source (name, "John");
+		source.source (name, "JOHN");
+
+		verify (consumer, times (1)).onValue (any ());
+		assertThat (store.get (name), is ("John"));
+	}
+
+	@Test
+	public void it_should_only_convert_lazy_values_when_they_are_read () {
+		AtomicInteger conversions = new AtomicInteger ();
+		Option<Integer> port = countingOption ("port", conversions);
+
+		EnvironmentOptionSource source = new EnvironmentOptionSource ("APP", "_");
+		OptionStore store = OptionStoreFactory.createLazy (new Option [] { port }, source);
+		source.consume (Collections.singletonMap ("APP_PORT", "8080"));
+
+		assertThat (conversions.get (), is (0));
+		assertThat (store.get (port), is (8080));
+		assertThat (store.getInt (port), is (8080));
+		assertThat (conversions.get (), is (1));
+	}
+
+	@Test
+	public void it_should_convert_eagerly_by_default () {
+		AtomicInteger conversions = new AtomicInteger ();
+		Option<Integer> port = countingOption ("port", conversions);
+
+		EnvironmentOptionSource source = new EnvironmentOptionSource ("APP", "_");
+		OptionStoreFactory.createNew (new Option [] { port }, source);
+		source.consume (Collections.singletonMap ("APP_PORT", "8080"));
+
+		assertThat (conversions.get (), is (1));
+	}
+
+	@Test (expected = NumberFormatException.class)
+	public void it_should_complain_about_bad_lazy_values_when_they_are_read () {
+		EnvironmentOptionSource source = new EnvironmentOptionSource ("APP", "_");
+		OptionStore store = OptionStoreFactory.createLazy (new Option [] { count }, source);
+		source.consume (Collections.singletonMap ("APP_COUNT", "many"));
+
+		assertThat (store.has (count), is (true));
+		store.get (count);
+	}
+
+	@Test
+	public void it_should_not_notify_listeners_when_the_same_raw_value_is_assigned () {
+		EnvironmentOptionSource source = new EnvironmentOptionSource ("APP", "_");
+		ReplacingOptionStore store = new ReplacingOptionStore (new DirectExecutorService (), count).lazyConversion (true);
+		store.bind (source);
+
+		StoreChangeConsumer.Value<Integer> consumer = mock (StoreChangeConsumer.Value.class);
+		store.onValue (count, consumer);
+
+		source.consume (Collections.singletonMap ("APP_COUNT", "9"));
+		source.consume (Collections.singletonMap ("APP_COUNT", "9"));
+
+		verify (consumer, times (1)).onValue (9);
+		assertThat (store.suppressedNotifications (), is (1L));
+	}
+
+	@Test
+	public void it_should_share_lazy_conversions_with_handles_and_snapshots () {
+		AtomicInteger conversions = new AtomicInteger ();
+		Option<Integer> port = countingOption ("port", conversions);
+
+		EnvironmentOptionSource source = new EnvironmentOptionSource ("APP", "_");
+		OptionStore store = OptionStoreFactory.createLazy (new Option [] { port }, source);
+		OptionHandle<Integer> handle = store.handle (port);
+		source.consume (Collections.singletonMap ("APP_PORT", "8080"));
+
+		assertThat (handle.get (), is (8080));
+		assertThat (store.snapshot ().get (port), is (8080));
+		assertThat (conversions.get (), is (1));
+	}
+
+	@Test
+	public void it_should_convert_values_for_handles_as_soon_as_they_are_committed () {
+		AtomicInteger conversions = new AtomicInteger ();
+		Option<Integer> port = countingOption ("port", conversions);
+
+		EnvironmentOptionSource source = new EnvironmentOptionSource ("APP", "_");
+		OptionStore store = OptionStoreFactory.createLazy (new Option [] { port }, source);
+		OptionHandle<Integer> handle = store.handle (port);
+		source.consume (Collections.singletonMap ("APP_PORT", "8080"));
+
+		assertThat (conversions.get (), is (1));
+		assertThat (handle.get (), is (8080));
+		assertThat (handle.get (), is (8080));
+		assertThat (conversions.get (), is (1));
+	}
+
+	@Test (expected = NumberFormatException.class)
+	public void it_should_complain_about_bad_values_when_they_are_read_through_a_handle () {
+		EnvironmentOptionSource source = new EnvironmentOptionSource ("APP", "_");
+		OptionStore store = OptionStoreFactory.createLazy (new Option [] { count }, source);
+		OptionHandle<Integer> handle = store.handle (count);
+		source.consume (Collections.singletonMap ("APP_COUNT", "many"));
+
+		assertThat (handle.has (), is (true));
+		handle.get ();
+	}
+
+	@Test
+	public void it_should_give_direct_access_to_array_and_set_values () {
+		IntArrayOption ports = new IntArrayOption ("ports");
+		StringSetOption hosts = new StringSetOption ("hosts");
+
+		ArgumentOptionSource source = new ArgumentOptionSource ();
+		OptionStore store = OptionStoreFactory.createNew (new Option [] { ports, hosts }, source);
+		source.consume (new String [] { "--ports=80,443,8080", "--hosts=a.example.com,b.example.com" });
+
+		assertThat (store.get (ports), is (IntArray.of (80, 443, 8080)));
+		assertThat (store.get (ports).contains (443), is (true));
+		assertThat (store.get (hosts).contains ("b.example.com"), is (true));
+	}
+
+	@Test
+	public void it_should_not_share_array_values_between_stores () {
+		IntArrayOption ports = new IntArrayOption ("ports", new int [] { 80, 443 });
+
+		OptionStore first = OptionStoreFactory.createNew (new Option [] { ports }, new DefaultsOptionSource ());
+		OptionStore second = OptionStoreFactory.createNew (new Option [] { ports }, new DefaultsOptionSource ());
+		first.get (ports).toArray ()[0] = 1;
+
+		assertThat (first.get (ports), is (IntArray.of (80, 443)));
+		assertThat (second.get (ports), is (IntArray.of (80, 443)));
+		assertThat (ports.getDefault (), is (IntArray.of (80, 443)));
+	}
+
+	@Test
+	public void it_should_give_snapshots_and_handles_to_stores_that_do_not_provide_them () {
+		SimpleOptionSource source = new SimpleOptionSource (consumer -> {});
+		OptionStore delegate = OptionStoreFactory.createNew (options, source);
+		OptionStore store = new OptionStore () {
+			@Override public void bind (OptionSource s) { delegate.bind (s); }
+			@Override public List<Option<?>> options () { return delegate.options (); }
+			@Override public boolean knows (Option<?> option) { return delegate.knows (option); }
+			@Override public boolean has (Option<?> option) { return delegate.has (option); }
+			@Override public <T> T get (Option<T> option) { return delegate.get (option); }
+			@Override public <T> List<T> getAll (Option<T> option) { return delegate.getAll (option); }
+			@Override public <T> void onChange (Option<T> option, StoreChangeConsumer<T> consumer) { delegate.onChange (option, consumer); }
+			@Override public <T> void onChanges (Option<T> option, StoreChangeConsumer.Multi<T> consumer) { delegate.onChanges (option, consumer); }
+			@Override public <T> DynamicOption<T> dynamic (Option<T> option) { return delegate.dynamic (option); }
+			@Override public <T> DynamicOption.Value<T> dynamicValue (Option<T> option) { return delegate.dynamicValue (option); }
+		};
+
 		source.source (count, 9);
+		OptionSnapshot snapshot = store.snapshot ();
+		OptionHandle<Integer> handle = store.handle (count);
+		source.source (count, 7);
+
+		assertThat (snapshot.getInt (count), is (9));
+		assertThat (handle.get (), is (7));
+		store.close ();
+	}
 
-		verify (executor, timeout (1000)).submit ((Runnable) any ());
+	private static Option<Integer> countingOption (String name, AtomicInteger conversions) {
+		return new BaseOption<Integer> (name, null, value -> {
+			conversions.incrementAndGet ();
+			return Integer.parseInt (value);
+		}) {};
 	}
 
 	private static class DirectExecutorService extends AbstractExecutorService {
@@ -0,0 +1,90 @@
+package org.tutske.lib.options.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class SerialExecutorTest {
+
+	@Test
+	public void it_should_keep_running_tasks_after_the_delegate_rejected_one () {
+		AtomicInteger rejections = new AtomicInteger (1);
+		SerialExecutor executor = new SerialExecutor (task -> {
+			if ( rejections.getAndDecrement () > 0 ) { throw new RejectedExecutionException ("busy"); }
+			task.run ();
+		});
+
+		AtomicInteger runs = new AtomicInteger ();
+		try { executor.execute (runs::incrementAndGet); fail (); }
+		catch ( RejectedExecutionException expected ) {}
+		executor.execute (runs::incrementAndGet);
+
+		assertThat (runs.get (), is (1));
+	}
+
+	@Test
+	public void it_should_report_failing_tasks_and_run_the_next_ones () {
+		SerialExecutor executor = new SerialExecutor (Runnable::run);
+		List<Throwable> reported = new ArrayList<> ();
+		AtomicInteger runs = new AtomicInteger ();
+
+		Thread thread = Thread.currentThread ();
+		Thread.UncaughtExceptionHandler original = thread.getUncaughtExceptionHandler ();
+		thread.setUncaughtExceptionHandler ((t, e) -> reported.add (e));
+		try {
+			executor.execute (() -> { throw new IllegalStateException ("crash"); });
+			executor.execute (runs::incrementAndGet);
+		} finally {
+			thread.setUncaughtExceptionHandler (original);
+		}
+
+		assertThat (runs.get (), is (1));
+		assertThat (reported, hasSize (1));
+		assertThat (reported.get (0), instanceOf (IllegalStateException.class));
+	}
+
+	@Test
+	public void it_should_not_keep_tasks_queued_without_a_drain_after_a_rejection () throws Exception {
+		CountDownLatch rejecting = new CountDownLatch (1);
+		CountDownLatch queued = new CountDownLatch (1);
+		AtomicInteger rejections = new AtomicInteger (1);
+		SerialExecutor executor = new SerialExecutor (task -> {
+			if ( rejections.getAndDecrement () > 0 ) {
+				rejecting.countDown ();
+				await (queued);
+				throw new RejectedExecutionException ("busy");
+			}
+			task.run ();
+		});
+
+		AtomicInteger runs = new AtomicInteger ();
+		Thread other = new Thread (() -> {
+			await (rejecting);
+			executor.execute (runs::incrementAndGet);
+			queued.countDown ();
+		});
+		other.start ();
+
+		try { executor.execute (runs::incrementAndGet); fail (); }
+		catch ( RejectedExecutionException expected ) {}
+		other.join ();
+
+		executor.execute (runs::incrementAndGet);
+		assertThat (runs.get (), is (1));
+	}
+
+	private static void await (CountDownLatch latch) {
+		try { latch.await (); }
+		catch ( InterruptedException e ) { throw new RuntimeException (e); }
+	}
+
+}
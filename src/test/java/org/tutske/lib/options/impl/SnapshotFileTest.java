@@ -0,0 +1,109 @@
+package org.tutske.lib.options.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.tutske.lib.options.Option;
+import org.tutske.lib.options.Option.*;
+import org.tutske.lib.options.OptionStore;
+import org.tutske.lib.options.OptionStoreFactory;
+import org.tutske.lib.options.SimpleOptionSource;
+import org.tutske.lib.options.sources.ArgumentOptionSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+public class SnapshotFileTest {
+
+	@Test
+	public void it_should_keep_the_types_of_values_in_a_snapshot () throws Exception {
+		DurationOption timeout = new DurationOption ("timeout");
+		PathOption home = new PathOption ("home");
+		LongOption size = new LongOption ("size");
+		BooleanOption verbose = new BooleanOption ("verbose");
+		EnumOption<TimeUnit> unit = new EnumOption<> ("unit", TimeUnit.values ());
+		Option [] options = { timeout, home, size, verbose, unit };
+
+		Path cache = Files.createTempDirectory ("options").resolve ("options.snapshot");
+		byte [] fingerprint = new SnapshotFile.Fingerprint ().add ("types").build ();
+
+		ArgumentOptionSource source = new ArgumentOptionSource ();
+		OptionStore original = OptionStoreFactory.createNew (options, source);
+		source.consume (new String [] { "--timeout=5s", "--home=/tmp", "--size=12", "--no-verbose", "--unit=seconds" });
+		assertThat (SnapshotFile.save (cache, fingerprint, original), is (true));
+
+		OptionStore store = OptionStoreFactory.createNew (options);
+		assertThat (SnapshotFile.restore (cache, new SnapshotFile.Fingerprint ().add ("other").build (), store), is (false));
+		assertThat (store.has (size), is (false));
+
+		assertThat (SnapshotFile.restore (cache, fingerprint, store), is (true));
+		assertThat (store.get (timeout), is (Duration.ofSeconds (5)));
+		assertThat (store.get (home), is (Paths.get ("/tmp")));
+		assertThat (store.get (size), is (12L));
+		assertThat (store.get (verbose), is (false));
+		assertThat (store.get (unit), is (TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void it_should_not_restore_a_truncated_snapshot () throws Exception {
+		StringOption name = new StringOption ("name");
+		Path cache = Files.createTempDirectory ("options").resolve ("options.snapshot");
+		byte [] fingerprint = new SnapshotFile.Fingerprint ().add ("truncated").build ();
+
+		SimpleOptionSource source = new SimpleOptionSource (consumer -> {});
+		OptionStore original = OptionStoreFactory.createNew (new Option [] { name }, source);
+		source.source (name, "John");
+		assertThat (SnapshotFile.save (cache, fingerprint, original), is (true));
+
+		byte [] bytes = Files.readAllBytes (cache);
+		for ( int length = bytes.length - 1; length >= 0; length-- ) {
+			Files.write (cache, Arrays.copyOf (bytes, length));
+			OptionStore store = OptionStoreFactory.createNew (new Option [] { name });
+			assertThat (SnapshotFile.restore (cache, fingerprint, store), is (false));
+			assertThat (store.has (name), is (false));
+		}
+	}
+
+	@Test
+	public void it_should_not_save_values_of_unknown_types () throws Exception {
+		IntArrayOption ports = new IntArrayOption ("ports");
+		Path cache = Files.createTempDirectory ("options").resolve ("options.snapshot");
+
+		ArgumentOptionSource source = new ArgumentOptionSource ();
+		OptionStore store = OptionStoreFactory.createNew (new Option [] { ports }, source);
+		source.consume (new String [] { "--ports=80,443" });
+
+		assertThat (SnapshotFile.save (cache, new SnapshotFile.Fingerprint ().build (), store), is (false));
+		assertThat (Files.exists (cache), is (false));
+	}
+
+	@Test
+	public void it_should_not_leave_temporary_files_behind_when_saving_fails () throws Exception {
+		StringOption name = new StringOption ("name");
+		Path directory = Files.createTempDirectory ("options");
+		Path cache = directory.resolve ("options.snapshot");
+		Files.createDirectory (cache);
+		Files.createFile (cache.resolve ("occupied"));
+
+		SimpleOptionSource source = new SimpleOptionSource (consumer -> {});
+		OptionStore store = OptionStoreFactory.createNew (new Option [] { name }, source);
+		source.source (name, "John");
+
+		try { SnapshotFile.save (cache, new SnapshotFile.Fingerprint ().build (), store); fail (); }
+		catch ( RuntimeException expected ) {}
+
+		try ( Stream<Path> files = Files.list (directory) ) {
+			assertThat (files.collect (Collectors.toList ()), contains (cache));
+		}
+	}
+
+}
@@ -17,12 +17,36 @@ public class ArgumentOptionSourceTailTest {
 	private OptionConsumer consumer = mock (OptionConsumer.class);
 	private ArgumentOptionSource source = new ArgumentOptionSource ();
 
-	@Test (expected = RuntimeException.class)
-	public void it_should_complain_on_consume_with_tail_with_multiple_listeners () {
-		source.subscribe (asList (new StringOption ("name")), createConsumer ());
-		source.subscribe (asList (new StringOption ("name")), createConsumer ());
+	@Test
+	public void it_should_consume_with_tail_with_multiple_listeners () throws Exception {
+		Option<String> name = new StringOption ("name");
+		Option<Integer> age = new IntegerOption ("age");
+		OptionConsumer other = mock (OptionConsumer.class);
+
+		source.subscribe (asList (name), consumer);
+		source.subscribe (asList (age), other);
+
+		String tail [] = source.consumeTailed (new String [] { "--name=john", "--age=23", "first", "--name=jane" });
+
+		verify (consumer).accept (eq (name), any ());
+		verify (other).accept (eq (age), any ());
+		assertThat (tail, arrayContaining ("first", "--name=jane"));
+	}
+
+	@Test
+	public void it_should_only_put_arguments_that_no_listener_knows_in_the_tail () throws Exception {
+		Option<String> first = new StringOption ("name");
+		Option<String> second = new StringOption ("name");
+		OptionConsumer other = mock (OptionConsumer.class);
+
+		source.subscribe (asList (first), consumer);
+		source.subscribe (asList (second, new BooleanOption ("verbose")), other);
+
+		String tail [] = source.consumeTailed (new String [] { "--name=john", "--no-verbose", "--unknown", "last" }, true);
 
-		source.consumeTailed (new String [] { "--", "--name=john" });
+		verify (consumer).accept (eq (first), any ());
+		verify (other).accept (eq (second), any ());
+		assertThat (tail, arrayContaining ("--unknown", "last"));
 	}
 
 	@Test
@@ -99,4 +123,26 @@ public class ArgumentOptionSourceTailTest {
 		verify (consumer).accept (eq (age), any ());
 	}
 
+	@Test
+	public void it_should_only_drop_the_first_double_dash_from_the_tail () {
+		source.subscribe (options ("name"), consumer);
+
+		String tail [] = source.consumeTailed (new String [] { "first", "--", "--name=john", "--", "last" }, true);
+		assertThat (tail, arrayContaining ("first", "--name=john", "--", "last"));
+	}
+
+	@Test
+	public void it_should_keep_the_order_of_a_long_tail () {
+		source.subscribe (options ("name"), consumer);
+
+		String [] args = new String [10000];
+		for ( int i = 0; i < args.length; i++ ) { args[i] = i % 2 == 0 ? "--name=" + i : "value-" + i; }
+
+		String tail [] = source.consumeTailed (args, true);
+
+		assertThat (tail.length, is (5000));
+		assertThat (tail[0], is ("value-1"));
+		assertThat (tail[4999], is ("value-9999"));
+	}
+
 }
@@ -11,6 +11,9 @@ import org.mockito.ArgumentCaptor;
 import org.tutske.lib.options.Option;
 import org.tutske.lib.options.OptionConsumer;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.List;
@@ -40,6 +43,31 @@ public class ArgumentOptionSourceTest {
 		verify (consumer, times (0)).accept (any (), any ());
 	}
 
+	@Test
+	public void it_should_no_longer_recognize_options_that_were_unsubscribed () throws Exception {
+		Option<String> name = new Option.StringOption ("name");
+
+		source.subscribe (asList (count, name), consumer);
+		source.unsubscribe (asList (name), consumer);
+
+		String [] tail = source.consumeTailed (new String [] { "--count=9", "--name=john" }, true);
+
+		verify (consumer).accept (eq (count), any ());
+		verify (consumer, times (0)).accept (eq (name), any ());
+		assertThat (tail, arrayContaining ("--name=john"));
+	}
+
+	@Test
+	public void it_should_recognize_options_with_every_consume () throws Exception {
+		source.subscribe (asList (count), consumer);
+
+		source.consume (new String [] { "--count=9" });
+		source.consume (new String [] { "--count=8" });
+
+		verify (consumer).accept (eq (count), (List) argThat (hasItem (9)));
+		verify (consumer).accept (eq (count), (List) argThat (hasItem (8)));
+	}
+
 	@Test
 	public void it_should_parse_path_options () throws Exception {
 		source.subscribe (asList (new Option.PathOption ("path")), consumer);
@@ -130,6 +158,26 @@ public class ArgumentOptionSourceTest {
 		assertThat (captor.getValue (), (Matcher) contains ("jhon", "jane"));
 	}
 
+	@Test
+	public void it_should_match_dashes_in_arguments_to_spaces_in_option_names () throws Exception {
+		Option<String> file = new Option.StringOption ("output file");
+
+		source.subscribe (asList (file), consumer);
+		source.consume (new String [] { "--output-file=/tmp/out.txt" });
+
+		verify (consumer).accept (eq (file), (List) argThat (hasItem ("/tmp/out.txt")));
+	}
+
+	@Test
+	public void it_should_match_options_with_dashes_in_their_name () throws Exception {
+		Option<Boolean> dry = new Option.BooleanOption ("dry-run");
+
+		source.subscribe (asList (dry), consumer);
+		source.consume (new String [] { "--no-dry-run" });
+
+		verify (consumer).accept (eq (dry), (List) argThat (hasItem (false)));
+	}
+
 	@Test
 	public void it_should_skip_things_that_dont_have_a_matching_option () throws Exception {
 		source.subscribe (Collections.emptyList (), consumer);
@@ -158,6 +206,91 @@ public class ArgumentOptionSourceTest {
 		verify (consumer, times (0)).accept (any (), any ());
 	}
 
+	@Test
+	public void it_should_read_arguments_from_argument_files () throws Exception {
+		Option<String> name = new Option.StringOption ("name");
+		Path file = argumentFile ("# generated", "--name=john", "", "--count=9", "--name=jane");
+
+		ArgumentOptionSource source = new ArgumentOptionSource (true);
+		source.subscribe (asList (count, name), consumer);
+		source.consume (new String [] { "@" + file });
+
+		verify (consumer).accept (eq (count), (List) argThat (hasItem (9)));
+		verify (consumer).accept (eq (name), (List) argThat (contains ("john", "jane")));
+	}
+
+	@Test
+	public void it_should_put_unknown_arguments_from_argument_files_in_the_tail () throws Exception {
+		Path file = argumentFile ("--count=9", "first\r", "--", "--count=8");
+
+		ArgumentOptionSource source = new ArgumentOptionSource (true);
+		source.subscribe (asList (count), consumer);
+		String [] tail = source.consumeTailed (new String [] { "@" + file, "last" }, true);
+
+		assertThat (tail, arrayContaining ("first", "--count=8", "last"));
+		verify (consumer).accept (eq (count), (List) argThat (contains (9)));
+	}
+
+	@Test
+	public void it_should_read_large_argument_files () throws Exception {
+		Option<String> input = new Option.StringOption ("input");
+		String [] lines = new String [100000];
+		for ( int i = 0; i < lines.length; i++ ) { lines[i] = "--input=/data/\u00e9t\u00e9/part-" + i; }
+		Path file = argumentFile (lines);
+
+		ArgumentCaptor<List> captor = ArgumentCaptor.forClass (List.class);
+		ArgumentOptionSource source = new ArgumentOptionSource (true);
+		source.subscribe (asList (input), consumer);
+		source.consume (new String [] { "@" + file });
+
+		verify (consumer).accept (eq (input), captor.capture ());
+		assertThat (Files.size (file), greaterThan (1L << 20));
+		assertThat (captor.getValue ().size (), is (lines.length));
+		assertThat (captor.getValue ().get (lines.length - 1), is ("/data/\u00e9t\u00e9/part-99999"));
+	}
+
+	@Test
+	public void it_should_not_read_argument_files_unless_asked () throws Exception {
+		source.subscribe (asList (count), consumer);
+		String [] tail = source.consumeTailed (new String [] { "@does-not-exist" });
+		assertThat (tail, arrayContaining ("@does-not-exist"));
+	}
+
+	@Test (expected = Exception.class)
+	public void it_should_complain_about_missing_argument_files () {
+		ArgumentOptionSource source = new ArgumentOptionSource (true);
+		source.subscribe (asList (count), consumer);
+		source.consume (new String [] { "@does-not-exist" });
+	}
+
+	@Test
+	public void it_should_give_a_flag_to_every_listener_with_an_option_of_the_same_name () throws Exception {
+		Option<String> dashed = new Option.StringOption ("dry-run");
+		Option<String> spaced = new Option.StringOption ("dry run");
+		OptionConsumer other = mock (OptionConsumer.class);
+
+		source.subscribe (asList (dashed), consumer);
+		source.subscribe (asList (spaced), other);
+		source.consume (new String [] { "--dry-run=yes" });
+
+		verify (consumer).accept (eq (dashed), eq (asList ("yes")));
+		verify (other).accept (eq (spaced), eq (asList ("yes")));
+	}
+
+	@Test
+	public void it_should_give_a_negated_flag_to_every_listener_that_knows_it () throws Exception {
+		Option<String> plain = new Option.StringOption ("no-color");
+		Option<Boolean> color = new Option.BooleanOption ("color");
+		OptionConsumer other = mock (OptionConsumer.class);
+
+		source.subscribe (asList (plain), consumer);
+		source.subscribe (asList (color), other);
+		source.consume (new String [] { "--no-color=true" });
+
+		verify (consumer).accept (eq (plain), eq (asList ("true")));
+		verify (other).accept (eq (color), eq (asList (false)));
+	}
+
 	@Test (expected = NumberFormatException.class)
 	public void it_should_propagate_exceptions_from_parsing () {
 		source.subscribe (asList (new Option.LongOption ("age")), consumer);
@@ -175,4 +308,11 @@ public class ArgumentOptionSourceTest {
 		source.consume (new String [] { "--name=john"});
 	}
 
+	private Path argumentFile (String ... lines) throws Exception {
+		Path path = Files.createTempFile ("arguments", ".args");
+		path.toFile ().deleteOnExit ();
+		Files.write (path, asList (lines), StandardCharsets.UTF_8);
+		return path;
+	}
+
 }
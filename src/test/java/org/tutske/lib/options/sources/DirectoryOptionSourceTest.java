@@ -0,0 +1,195 @@
+package org.tutske.lib.options.sources;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.tutske.lib.options.Option;
+import org.tutske.lib.options.OptionConsumer;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+
+public class DirectoryOptionSourceTest {
+
+	@Rule public TemporaryFolder folder = new TemporaryFolder ();
+
+	private Option<String> name = new Option.StringOption ("first name");
+	private Option<Integer> count = new Option.IntegerOption ("count");
+	private OptionConsumer consumer = mock (OptionConsumer.class);
+	private DirectoryOptionSource source;
+
+	@After
+	public void tearDown () {
+		if ( source != null ) { source.close (); }
+	}
+
+	@Test
+	public void it_should_read_a_value_for_every_file_that_matches_an_option () throws Exception {
+		write ("FIRST_NAME", "John\n");
+		write ("count", "9");
+
+		source = new DirectoryOptionSource (folder.getRoot ().toPath ());
+		source.subscribe (asList (name, count), consumer);
+		source.consume ();
+
+		verify (consumer).accept (eq (name), eq (asList ("John")));
+		verify (consumer).accept (eq (count), eq (asList (9)));
+	}
+
+	@Test
+	public void it_should_not_notify_of_files_that_do_not_match_an_option () throws Exception {
+		write ("unknown", "John");
+
+		source = new DirectoryOptionSource (folder.getRoot ().toPath ());
+		source.subscribe (asList (name, count), consumer);
+		source.consume ();
+
+		verifyZeroInteractions (consumer);
+	}
+
+	@Test
+	public void it_should_not_complain_when_the_directory_does_not_exist () {
+		source = new DirectoryOptionSource (folder.getRoot ().toPath ().resolve ("missing"));
+		source.subscribe (asList (name), consumer);
+		source.consume ();
+
+		verifyZeroInteractions (consumer);
+	}
+
+	@Test
+	public void it_should_only_push_the_files_that_changed_while_watching () throws Exception {
+		write ("FIRST_NAME", "John");
+		write ("count", "9");
+
+		source = new DirectoryOptionSource (folder.getRoot ().toPath (), Duration.ofMillis (10));
+		source.subscribe (asList (name, count), consumer);
+		source.consume ();
+		source.watch ();
+
+		write ("count", "8");
+
+		verify (consumer, timeout (10000)).accept (eq (count), eq (asList (8)));
+		verify (consumer, times (1)).accept (eq (name), any ());
+	}
+
+	@Test
+	public void it_should_pick_up_values_when_the_data_link_is_swapped () throws Exception {
+		Path root = folder.getRoot ().toPath ();
+		Files.createDirectory (root.resolve ("..first"));
+		Files.write (root.resolve ("..first/count"), "9".getBytes (StandardCharsets.UTF_8));
+		Files.createSymbolicLink (root.resolve ("..data"), Paths.get ("..first"));
+		Files.createSymbolicLink (root.resolve ("count"), Paths.get ("..data/count"));
+
+		source = new DirectoryOptionSource (root, Duration.ofMillis (10));
+		source.subscribe (asList (count), consumer);
+		source.consume ();
+		source.watch ();
+
+		Files.createDirectory (root.resolve ("..second"));
+		Files.write (root.resolve ("..second/count"), "8".getBytes (StandardCharsets.UTF_8));
+		Files.createSymbolicLink (root.resolve ("..data_tmp"), Paths.get ("..second"));
+		Files.move (root.resolve ("..data_tmp"), root.resolve ("..data"), StandardCopyOption.ATOMIC_MOVE);
+
+		verify (consumer).accept (eq (count), eq (asList (9)));
+		verify (consumer, timeout (10000)).accept (eq (count), eq (asList (8)));
+	}
+
+	@Test
+	public void it_should_ignore_case_and_separators_in_file_names () throws Exception {
+		write ("First-Name", "John");
+
+		source = new DirectoryOptionSource (folder.getRoot ().toPath ());
+		source.subscribe (asList (name), consumer);
+		source.consume ();
+
+		verify (consumer).accept (eq (name), eq (asList ("John")));
+	}
+
+	@Test
+	public void it_should_prefer_the_canonical_file_name_over_other_spellings () throws Exception {
+		write ("first.name", "Johnny");
+		write ("FIRST_NAME", "John");
+		write ("first name", "Jack");
+
+		source = new DirectoryOptionSource (folder.getRoot ().toPath ());
+		source.subscribe (asList (name), consumer);
+		source.consume ();
+
+		verify (consumer).accept (eq (name), eq (asList ("John")));
+		verifyNoMoreInteractions (consumer);
+	}
+
+	@Test
+	public void it_should_fall_back_to_the_next_spelling_when_a_file_is_removed () throws Exception {
+		write ("FIRST_NAME", "John");
+		write ("first-name", "Johnny");
+
+		source = new DirectoryOptionSource (folder.getRoot ().toPath (), Duration.ofMillis (10));
+		source.subscribe (asList (name), consumer);
+		source.consume ();
+		source.watch ();
+
+		Files.delete (folder.getRoot ().toPath ().resolve ("FIRST_NAME"));
+
+		verify (consumer).accept (eq (name), eq (asList ("John")));
+		verify (consumer, timeout (10000)).accept (eq (name), eq (asList ("Johnny")));
+	}
+
+	@Test
+	public void it_should_report_failed_refreshes_while_watching () throws Exception {
+		write ("count", "9");
+		BlockingQueue<Throwable> reported = new LinkedBlockingQueue<> ();
+
+		Thread.UncaughtExceptionHandler original = Thread.getDefaultUncaughtExceptionHandler ();
+		Thread.setDefaultUncaughtExceptionHandler ((thread, e) -> reported.add (e));
+
+		try {
+			source = new DirectoryOptionSource (folder.getRoot ().toPath (), Duration.ofMillis (10));
+			source.subscribe (asList (count), consumer);
+			source.consume ();
+			source.watch ();
+
+			write ("count", "many");
+			assertThat (reported.poll (10, TimeUnit.SECONDS), instanceOf (NumberFormatException.class));
+		} finally {
+			Thread.setDefaultUncaughtExceptionHandler (original);
+		}
+	}
+
+	@Test
+	public void it_should_stop_watching_when_closed () throws Exception {
+		write ("count", "9");
+
+		source = new DirectoryOptionSource (folder.getRoot ().toPath (), Duration.ofMillis (10));
+		source.subscribe (asList (count), consumer);
+		source.watch ();
+		source.close ();
+
+		write ("count", "8");
+		Thread.sleep (200);
+
+		verifyZeroInteractions (consumer);
+	}
+
+	private void write (String file, String content) throws Exception {
+		Path path = folder.getRoot ().toPath ().resolve (file);
+		Path tmp = folder.getRoot ().toPath ().resolve ("." + file + ".tmp");
+		Files.write (tmp, content.getBytes (StandardCharsets.UTF_8));
+		Files.move (tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+}
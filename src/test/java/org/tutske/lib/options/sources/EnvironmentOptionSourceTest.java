@@ -132,6 +132,60 @@ public class EnvironmentOptionSourceTest {
 		verify (consumer, times (1)).accept (eq (firstname), any ());
 	}
 
+	@Test
+	public void it_should_find_options_when_there_are_more_options_than_variables () throws Exception {
+		Option [] options = new Option [100];
+		for ( int i = 0; i < options.length; i++ ) { options[i] = new Option.StringOption ("name " + i); }
+
+		source.subscribe (asList (options), consumer);
+		source.consume (new HashMap<String, String> () {{
+			put ("L_NAME_42", "John");
+			put ("NAME_43", "Jane");
+			put ("L_UNKNOWN", "Doe");
+		}});
+
+		verify (consumer).accept (eq (options[42]), eq (asList ("John")));
+		verifyNoMoreInteractions (consumer);
+	}
+
+	@Test
+	public void it_should_give_every_option_with_the_same_key_the_value_when_looking_up_options () throws Exception {
+		Option<String> lower = new Option.StringOption ("first name");
+		Option<String> upper = new Option.StringOption ("First Name");
+
+		source.subscribe (options (lower, upper), consumer);
+		source.consume (new HashMap<String, String> () {{
+			put ("L_FIRST_NAME", "John");
+			put ("L_LAST_NAME", "Doe");
+		}});
+
+		verify (consumer).accept (eq (lower), eq (asList ("John")));
+		verify (consumer).accept (eq (upper), eq (asList ("John")));
+	}
+
+	@Test
+	public void it_should_give_every_option_with_the_same_key_the_value_when_looking_up_variables () throws Exception {
+		Option<String> lower = new Option.StringOption ("first name");
+		Option<String> upper = new Option.StringOption ("First Name");
+
+		source.subscribe (options (lower, upper), consumer);
+		source.consume (Collections.singletonMap ("L_FIRST_NAME", "John"));
+
+		verify (consumer).accept (eq (lower), eq (asList ("John")));
+		verify (consumer).accept (eq (upper), eq (asList ("John")));
+	}
+
+	@Test
+	public void it_should_use_the_separator_literally () throws Exception {
+		Option<String> firstname = new Option.StringOption ("first name");
+		EnvironmentOptionSource source = new EnvironmentOptionSource ("L", "$");
+
+		source.subscribe (options (firstname), consumer);
+		source.consume (Collections.singletonMap ("L$FIRST$NAME", "John"));
+
+		verify (consumer).accept (eq (firstname), eq (asList ("John")));
+	}
+
 	@Test (expected = Exception.class)
 	public void it_should_propagate_exceptions_from_consumers () {
 		source.subscribe (asList (new Option.StringOption ("name", "john")), new OptionConsumer () {
@@ -2,6 +2,7 @@ package org.tutske.lib.options.sources;
 
 import static java.util.Arrays.asList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.Mockito.*;
 
@@ -15,10 +16,18 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 
 public class PropertyFileOptionSourceTest {
@@ -262,6 +271,207 @@ public class PropertyFileOptionSourceTest {
 		verify (consumer, times (1)).accept (eq (firstname), any ());
 	}
 
+	@Test
+	public void it_should_notify_of_all_values_on_the_first_reload () throws Exception {
+		Option<String> firstname = new Option.StringOption ("first name");
+		Option<String> lastname = new Option.StringOption ("last name");
+		Path path = propertiesFile ("FIRST_NAME = john", "LAST_NAME = doe");
+
+		source.subscribe (Utils.options (firstname, lastname), consumer);
+
+		assertThat (source.reload (path), is (true));
+		verify (consumer).accept (eq (firstname), eq (asList ("john")));
+		verify (consumer).accept (eq (lastname), eq (asList ("doe")));
+	}
+
+	@Test
+	public void it_should_not_reparse_a_file_that_did_not_change () throws Exception {
+		Option<String> firstname = new Option.StringOption ("first name");
+		Path path = propertiesFile ("FIRST_NAME = john");
+
+		source.subscribe (Utils.options (firstname), consumer);
+		source.reload (path);
+
+		assertThat (source.reload (path), is (false));
+		verify (consumer, times (1)).accept (eq (firstname), any ());
+	}
+
+	@Test
+	public void it_should_retry_a_reload_when_notifying_the_consumers_failed () throws Exception {
+		Option<String> firstname = new Option.StringOption ("first name");
+		Path path = propertiesFile ("FIRST_NAME = john");
+
+		source.subscribe (Utils.options (firstname), consumer);
+		source.reload (path);
+
+		doThrow (new RuntimeException ("Intentional failure")).doNothing ().when (consumer).accept (any (), any ());
+		Files.write (path, asList ("FIRST_NAME = janet"), StandardCharsets.UTF_8);
+
+		try { source.reload (path); fail (); }
+		catch ( RuntimeException expected ) {}
+
+		assertThat (source.reload (path), is (true));
+		verify (consumer, times (2)).accept (eq (firstname), eq (asList ("janet")));
+	}
+
+	@Test
+	public void it_should_not_notify_when_only_the_modification_time_changed () throws Exception {
+		Option<String> firstname = new Option.StringOption ("first name");
+		Path path = propertiesFile ("FIRST_NAME = john");
+
+		source.subscribe (Utils.options (firstname), consumer);
+		source.reload (path);
+		Files.setLastModifiedTime (path, FileTime.fromMillis (0));
+
+		assertThat (source.reload (path), is (false));
+		verify (consumer, times (1)).accept (eq (firstname), any ());
+	}
+
+	@Test
+	public void it_should_only_notify_of_the_keys_that_changed () throws Exception {
+		Option<String> firstname = new Option.StringOption ("first name");
+		Option<String> lastname = new Option.StringOption ("last name");
+		Path path = propertiesFile ("FIRST_NAME = john", "LAST_NAME = doe");
+
+		source.subscribe (Utils.options (firstname, lastname), consumer);
+		source.reload (path);
+		Files.write (path, asList ("FIRST_NAME = jane", "LAST_NAME = doe"), StandardCharsets.UTF_8);
+
+		assertThat (source.reload (path), is (true));
+		verify (consumer).accept (eq (firstname), eq (asList ("jane")));
+		verify (consumer, times (1)).accept (eq (lastname), any ());
+	}
+
+	@Test
+	public void it_should_fall_back_to_other_names_when_a_key_is_removed () throws Exception {
+		Option<String> firstname = new Option.StringOption ("first name");
+		Path path = propertiesFile ("FIRST_NAME = john", "first-name = johnny");
+
+		source.subscribe (Utils.options (firstname), consumer);
+		source.reload (path);
+		Files.write (path, asList ("first-name = johnny"), StandardCharsets.UTF_8);
+
+		assertThat (source.reload (path), is (true));
+		verify (consumer).accept (eq (firstname), eq (asList ("johnny")));
+	}
+
+	@Test
+	public void it_should_pick_up_changes_while_watching () throws Exception {
+		Option<String> firstname = new Option.StringOption ("first name");
+		Path path = propertiesFile ("FIRST_NAME = john");
+
+		source.subscribe (Utils.options (firstname), consumer);
+		source.watch (path, Duration.ofMillis (10));
+
+		try {
+			verify (consumer).accept (eq (firstname), eq (asList ("john")));
+			Files.write (path, asList ("FIRST_NAME = janet"), StandardCharsets.UTF_8);
+			verify (consumer, timeout (10000)).accept (eq (firstname), eq (asList ("janet")));
+		} finally {
+			source.close ();
+		}
+	}
+
+	@Test
+	public void it_should_report_failed_reloads_while_watching () throws Exception {
+		Option<String> firstname = new Option.StringOption ("first name");
+		Path path = propertiesFile ("FIRST_NAME = john");
+		BlockingQueue<Throwable> reported = new LinkedBlockingQueue<> ();
+
+		Thread.UncaughtExceptionHandler original = Thread.getDefaultUncaughtExceptionHandler ();
+		Thread.setDefaultUncaughtExceptionHandler ((thread, e) -> reported.add (e));
+
+		source.subscribe (Utils.options (firstname), consumer);
+		source.watch (path, Duration.ofMillis (10));
+
+		try {
+			doThrow (new IllegalStateException ("Intentional failure")).when (consumer).accept (any (), any ());
+			Files.write (path, asList ("FIRST_NAME = janet"), StandardCharsets.UTF_8);
+			assertThat (reported.poll (10, TimeUnit.SECONDS), instanceOf (IllegalStateException.class));
+		} finally {
+			source.close ();
+			Thread.setDefaultUncaughtExceptionHandler (original);
+		}
+	}
+
+	@Test
+	public void it_should_ignore_case_and_separators_in_keys () throws Exception {
+		Option<String> firstname = new Option.StringOption ("first name");
+
+		source.subscribe (Utils.options (firstname), consumer);
+		source.consume (stream ("First.Name = John"));
+
+		verify (consumer).accept (eq (firstname), eq (asList ("John")));
+	}
+
+	@Test
+	public void it_should_prefer_the_canonical_key_over_other_spellings () throws Exception {
+		Option<String> firstname = new Option.StringOption ("first name");
+
+		source.subscribe (Utils.options (firstname), consumer);
+		source.consume (stream ("first.name = Johnny", "FIRST_NAME = John", "first-name = Jack"));
+
+		verify (consumer).accept (eq (firstname), eq (asList ("John")));
+	}
+
+	@Test
+	public void it_should_read_values_like_java_properties_do () throws Exception {
+		String [] lines = {
+			"# comment \\",
+			"! other comment",
+			"   first\\ name   :   John \\\\",
+			"message = hello \\",
+			"    world\\t\\u0041",
+			"empty",
+			"key\\=with\\:separators value"
+		};
+
+		Properties expected = new Properties ();
+		expected.load (stream (lines));
+
+		Option<String> firstname = new Option.StringOption ("first name");
+		Option<String> message = new Option.StringOption ("message");
+		Option<String> empty = new Option.StringOption ("empty");
+		Option<String> key = new Option.StringOption ("key=with:separators");
+
+		source.subscribe (Utils.options (firstname, message, empty, key), consumer);
+		source.consume (stream (lines));
+
+		verify (consumer).accept (eq (firstname), eq (asList (expected.getProperty ("first name"))));
+		verify (consumer).accept (eq (message), eq (asList (expected.getProperty ("message"))));
+		verify (consumer).accept (eq (empty), eq (asList (expected.getProperty ("empty"))));
+		verify (consumer).accept (eq (key), eq (asList (expected.getProperty ("key=with:separators"))));
+	}
+
+	@Test
+	public void it_should_read_values_from_large_files () throws Exception {
+		List<String> lines = new ArrayList<> ();
+		for ( int i = 0; i < 100_000; i++ ) { lines.add ("feature." + i + " = value " + i); }
+		lines.add ("FIRST_NAME = \\u004aohn \\");
+		lines.add ("    doe");
+		lines.add ("escaped\\ key = yes");
+		Path path = propertiesFile (lines.toArray (new String [0]));
+
+		Option<String> firstname = new Option.StringOption ("first name");
+		Option<String> feature = new Option.StringOption ("feature 99999");
+		Option<String> escaped = new Option.StringOption ("escaped key");
+
+		source.subscribe (Utils.options (firstname, feature, escaped), consumer);
+		source.consume (path);
+
+		assertThat (Files.size (path), greaterThan (1L << 20));
+		verify (consumer).accept (eq (firstname), eq (asList ("John doe")));
+		verify (consumer).accept (eq (feature), eq (asList ("value 99999")));
+		verify (consumer).accept (eq (escaped), eq (asList ("yes")));
+	}
+
+	private Path propertiesFile (String ... lines) throws Exception {
+		Path path = Files.createTempFile ("options", ".properties");
+		path.toFile ().deleteOnExit ();
+		Files.write (path, asList (lines), StandardCharsets.UTF_8);
+		return path;
+	}
+
 	private InputStream stream (String ... content) {
 		return new ByteArrayInputStream (String.join ("\n", content).getBytes ());
 	}